@@ -22,15 +22,16 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -50,45 +51,53 @@ public class LiveVariableAnalysis extends
         return false;
     }
 
+    /**
+     * Live variables of a method are represented as {@link BitSetFact}s
+     * over the variables of the method, i.e., {@link IR#getVars()}.
+     */
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        // TODO - finish me
-        return new SetFact<Var>();
+        return new BitSetFact<>(cfg.getIR().getVars());
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<>(cfg.getIR().getVars());
+    }
+
+    /**
+     * Without a CFG, the variables of the method are unknown, thus this
+     * method returns a plain {@link SetFact}, which can be freely combined
+     * with the {@link BitSetFact}s returned by the methods above.
+     */
     @Override
     public SetFact<Var> newInitialFact() {
-        // TODO - finish me
-        return new SetFact<Var>();
+        return new SetFact<>();
     }
 
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
-        // TODO - finish me
         target.union(fact);
     }
 
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        // TODO - finish me
-        SetFact<Var> tmp = new SetFact<Var>();
-        tmp.set(out);
-
+        // The in fact of a node only grows during solving, as it starts
+        // from the empty set and the transfer function is monotone.
+        // Thus, instead of building IN = USE + (OUT - DEF) as a new fact
+        // and comparing it with the old one, we merge it into IN in place.
+        boolean changed;
         Optional<LValue> def = stmt.getDef();
-        if(!def.isEmpty() && def.get() instanceof Var)
-            tmp.remove((Var) def.get());
-
-        List<RValue> use = stmt.getUses();
-        for(RValue rv : use)
-            if(rv instanceof Var)
-                tmp.add((Var) rv);
-
-        if(in.equals(tmp))
-            return false;
-        else
-        {
-            in.set(tmp);
-            return true;
+        if (def.isPresent() && def.get() instanceof Var defVar) {
+            changed = in.unionExcept(out, defVar);
+        } else {
+            changed = in.union(out);
+        }
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var useVar) {
+                changed |= in.add(useVar);
+            }
         }
+        return changed;
     }
 }
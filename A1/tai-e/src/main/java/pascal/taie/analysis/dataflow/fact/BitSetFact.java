@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Streams;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts as dense bit vectors.
+ * The i-th bit of the vector corresponds to the element whose
+ * {@link Indexable#getIndex()} is i, and set operations between
+ * two {@link BitSetFact}s work word by word.
+ * <p>
+ * All facts that may be combined with each other must share the same
+ * universe, i.e., the list of elements ordered by their indexes,
+ * e.g., {@link pascal.taie.ir.IR#getVars()} for variables of a method.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * Elements which may be contained in this fact, indexed by
+     * {@link Indexable#getIndex()}.
+     */
+    private final List<E> universe;
+
+    private final long[] words;
+
+    public BitSetFact(List<E> universe) {
+        this.universe = universe;
+        this.words = new long[wordIndex(universe.size() - 1) + 1];
+    }
+
+    private BitSetFact(List<E> universe, long[] words) {
+        this.universe = universe;
+        this.words = words;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        int index = e.getIndex();
+        return (words[wordIndex(index)] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = e.getIndex();
+        int wi = wordIndex(index);
+        long old = words[wi];
+        words[wi] = old | (1L << index);
+        return words[wi] != old;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int index = e.getIndex();
+        int wi = wordIndex(index);
+        long old = words[wi];
+        words[wi] = old & ~(1L << index);
+        return words[wi] != old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (filter.test(universe.get(i))) {
+                words[wordIndex(i)] &= ~(1L << i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            checkUniverse(that);
+            long changed = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long old = words[i];
+                words[i] = old | that.words[i];
+                changed |= words[i] ^ old;
+            }
+            return changed != 0;
+        } else {
+            boolean changed = false;
+            for (E e : other) {
+                changed |= add(e);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean unionExcept(SetFact<E> other, E excluded) {
+        if (other instanceof BitSetFact<E> that) {
+            checkUniverse(that);
+            int exIndex = excluded.getIndex();
+            int exWord = wordIndex(exIndex);
+            long changed = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long old = words[i];
+                long w = that.words[i];
+                if (i == exWord) {
+                    w &= ~(1L << exIndex);
+                }
+                words[i] = old | w;
+                changed |= words[i] ^ old;
+            }
+            return changed != 0;
+        } else {
+            boolean changed = false;
+            for (E e : other) {
+                if (!e.equals(excluded)) {
+                    changed |= add(e);
+                }
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            checkUniverse(that);
+            long changed = 0;
+            for (int i = 0; i < words.length; ++i) {
+                long old = words[i];
+                words[i] = old & that.words[i];
+                changed |= words[i] ^ old;
+            }
+            return changed != 0;
+        } else {
+            return removeIf(e -> !other.contains(e));
+        }
+    }
+
+    /**
+     * Removes all elements of other fact from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean diff(BitSetFact<E> other) {
+        checkUniverse(other);
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] = old & ~other.words[i];
+            changed |= words[i] ^ old;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            checkUniverse(that);
+            System.arraycopy(that.words, 0, words, 0, words.length);
+        } else {
+            clear();
+            union(other);
+        }
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(universe, words.clone());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return IntStream.iterate(nextSetBit(0), i -> i >= 0, i -> nextSetBit(i + 1))
+                .mapToObj(universe::get);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return stream().iterator();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return index of the first set bit that occurs on or after
+     * the specified index, or -1 if there is no such bit.
+     */
+    private int nextSetBit(int fromIndex) {
+        int wi = wordIndex(fromIndex);
+        if (wi >= words.length) {
+            return -1;
+        }
+        long word = words[wi] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (wi << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wi == words.length) {
+                return -1;
+            }
+            word = words[wi];
+        }
+    }
+
+    private void checkUniverse(BitSetFact<E> other) {
+        if (universe != other.universe) {
+            throw new IllegalArgumentException(
+                    "Cannot combine bit-set facts of different universes");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that) {
+            return universe == that.universe &&
+                    Arrays.equals(words, that.words);
+        }
+        if (o instanceof SetFact<?> that) {
+            // compare with other kinds of set facts element by element
+            return that.equals(this);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), thus with SetFact.hashCode()
+        int h = 0;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            h += universe.get(i).hashCode();
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
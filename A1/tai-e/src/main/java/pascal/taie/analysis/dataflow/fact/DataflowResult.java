@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -37,6 +39,8 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
     private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
 
+    private SolverMetrics metrics;
+
     /**
      * @return the flowing-in fact of given node.
      */
@@ -66,4 +70,16 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
     public void setOutFact(Node node, Fact fact) {
         outFacts.put(node, fact);
     }
+
+    /**
+     * @return the metrics of the solving which computed this result,
+     * or null if this result was not computed by a solver.
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
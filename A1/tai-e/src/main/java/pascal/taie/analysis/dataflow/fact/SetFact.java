@@ -27,18 +27,24 @@ import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
  * Represents set-like data-flow facts.
+ * <p>
+ * Operations that take another fact access its elements only via
+ * {@link #iterator()}, {@link #stream()} and {@link #contains(Object)},
+ * thus facts of different representations, e.g., {@link BitSetFact},
+ * can be combined with each other.
  *
  * @param <E> type of elements
  */
-public class SetFact<E> {
+public class SetFact<E> implements Iterable<E> {
 
-    protected final Set<E> set;
+    private final Set<E> set;
 
     public SetFact(Collection<E> c) {
         set = Sets.newHybridSet(c);
@@ -89,7 +95,27 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        boolean changed = false;
+        for (E e : other) {
+            changed |= set.add(e);
+        }
+        return changed;
+    }
+
+    /**
+     * Unions other fact into this fact, except the given element.
+     * The excluded element is neither added to nor removed from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean unionExcept(SetFact<E> other, E excluded) {
+        boolean changed = false;
+        for (E e : other) {
+            if (!e.equals(excluded)) {
+                changed |= set.add(e);
+            }
+        }
+        return changed;
     }
 
     /**
@@ -107,7 +133,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return set.removeIf(e -> !other.contains(e));
     }
 
     /**
@@ -149,6 +175,11 @@ public class SetFact<E> {
         return set.stream();
     }
 
+    @Override
+    public Iterator<E> iterator() {
+        return set.iterator();
+    }
+
     public int size() {
         return set.size();
     }
@@ -161,7 +192,7 @@ public class SetFact<E> {
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
-        return set.equals(that.set);
+        return size() == that.size() && that.stream().allMatch(set::contains);
     }
 
     @Override
@@ -42,6 +42,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
+        SolverMetrics metrics = result.getMetrics();
         boolean changed = true;
         while (changed)
         {
@@ -49,12 +50,18 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
             for(Node node : cfg)
                 if(!cfg.isExit(node))
                 {
+                    metrics.countPop();
                     SetFact<Var> out = (SetFact<Var>) result.getOutFact(node);
 
-                    for(Node succ : cfg.getSuccsOf(node))
+                    for(Node succ : cfg.getSuccsOf(node)) {
                         analysis.meetInto(result.getInFact(succ), (Fact) out);
+                        metrics.countMeet();
+                    }
 
-                    changed = analysis.transferNode(node, result.getInFact(node), (Fact) out) || changed;
+                    Fact in = result.getInFact(node);
+                    boolean nodeChanged = analysis.transferNode(node, in, (Fact) out);
+                    metrics.countTransfer(nodeChanged, in);
+                    changed = nodeChanged || changed;
                 }
 
         }
@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -49,15 +51,41 @@ public abstract class Solver<Node, Fact> {
         return new IterativeSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * according to the strategy specified in the options:
+     * <ul>
+     *     <li>{@code worklist: null} (default): iterates over all nodes
+     *     until no fact changes (see {@link IterativeSolver}).</li>
+     *     <li>{@code worklist: wto}: visits nodes in a weak topological
+     *     ordering of the CFG, and stabilizes inner loops before outer ones
+     *     (see {@link WTOSolver}).</li>
+     * </ul>
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        String worklist = options.getString("worklist");
+        if (worklist == null) {
+            return makeSolver(analysis);
+        } else if (worklist.equals("wto")) {
+            return new WTOSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown work-list strategy: " + worklist);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
      * @param cfg control-flow graph where the analysis is performed on
-     * @return the analysis result
+     * @return the analysis result, which carries the {@link SolverMetrics}
+     * of the solving
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        long start = System.nanoTime();
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        result.getMetrics().setTime(System.nanoTime() - start);
         return result;
     }
 
@@ -68,6 +96,7 @@ public abstract class Solver<Node, Fact> {
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = new DataflowResult<>();
+        result.setMetrics(new SolverMetrics());
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -77,7 +106,14 @@ public abstract class Solver<Node, Fact> {
     }
 
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        result.setInFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        for (Node node : cfg) {
+            if (!cfg.isEntry(node)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
@@ -87,8 +123,8 @@ public abstract class Solver<Node, Fact> {
         for(Node node:cfg)
         {
             if(!cfg.isExit(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
 
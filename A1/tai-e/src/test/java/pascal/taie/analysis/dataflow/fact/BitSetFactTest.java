@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.util.Indexable;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    private record Element(int index) implements Indexable {
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * More than one word, so that operations across words are covered.
+     */
+    private static final List<Element> UNIVERSE = IntStream.range(0, 100)
+            .mapToObj(Element::new)
+            .collect(Collectors.toList());
+
+    private static BitSetFact<Element> bitSetOf(int... indexes) {
+        BitSetFact<Element> fact = new BitSetFact<>(UNIVERSE);
+        for (int i : indexes) {
+            fact.add(UNIVERSE.get(i));
+        }
+        return fact;
+    }
+
+    private static SetFact<Element> setOf(int... indexes) {
+        SetFact<Element> fact = new SetFact<>();
+        for (int i : indexes) {
+            fact.add(UNIVERSE.get(i));
+        }
+        return fact;
+    }
+
+    @Test
+    public void testAddRemove() {
+        BitSetFact<Element> fact = bitSetOf();
+        assertTrue(fact.isEmpty());
+        assertTrue(fact.add(UNIVERSE.get(70)));
+        assertFalse(fact.add(UNIVERSE.get(70)));
+        assertTrue(fact.contains(UNIVERSE.get(70)));
+        assertFalse(fact.contains(UNIVERSE.get(6)));
+        assertEquals(1, fact.size());
+        assertTrue(fact.remove(UNIVERSE.get(70)));
+        assertFalse(fact.remove(UNIVERSE.get(70)));
+        assertTrue(fact.isEmpty());
+    }
+
+    @Test
+    public void testBitSetOperations() {
+        BitSetFact<Element> fact = bitSetOf(1, 63, 64);
+        assertTrue(fact.union(bitSetOf(2, 64, 99)));
+        assertEquals(bitSetOf(1, 2, 63, 64, 99), fact);
+        assertFalse(fact.union(bitSetOf(2, 99)));
+        assertTrue(fact.intersect(bitSetOf(0, 2, 64, 98)));
+        assertEquals(bitSetOf(2, 64), fact);
+        assertTrue(fact.unionExcept(bitSetOf(3, 65), UNIVERSE.get(65)));
+        assertEquals(bitSetOf(2, 3, 64), fact);
+        assertTrue(fact.diff(bitSetOf(3, 64)));
+        assertEquals(bitSetOf(2), fact);
+        fact.set(bitSetOf(5, 80));
+        assertEquals(bitSetOf(5, 80), fact);
+        assertTrue(fact.removeIf(e -> e.getIndex() > 64));
+        assertEquals(bitSetOf(5), fact);
+    }
+
+    @Test
+    public void testCopy() {
+        BitSetFact<Element> fact = bitSetOf(4, 66);
+        BitSetFact<Element> copy = fact.copy();
+        assertEquals(fact, copy);
+        copy.add(UNIVERSE.get(10));
+        assertFalse(fact.contains(UNIVERSE.get(10)));
+    }
+
+    @Test
+    public void testStream() {
+        assertEquals(List.of(UNIVERSE.get(0), UNIVERSE.get(63), UNIVERSE.get(99)),
+                bitSetOf(99, 0, 63).stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testMixedWithSetFact() {
+        // set facts of different representations are combined by elements
+        BitSetFact<Element> bitSet = bitSetOf(1, 64);
+        assertTrue(bitSet.union(setOf(2, 65)));
+        assertEquals(bitSetOf(1, 2, 64, 65), bitSet);
+        SetFact<Element> set = setOf(1, 3);
+        assertTrue(set.union(bitSetOf(64, 65)));
+        assertEquals(setOf(1, 3, 64, 65), set);
+        assertTrue(set.unionExcept(bitSetOf(4, 5), UNIVERSE.get(5)));
+        assertEquals(setOf(1, 3, 4, 64, 65), set);
+        assertTrue(set.intersect(bitSetOf(1, 4, 65, 66)));
+        assertEquals(setOf(1, 4, 65), set);
+        set.set(bitSetOf(7, 70));
+        assertEquals(setOf(7, 70), set);
+        bitSet.set(setOf(8, 80));
+        assertEquals(bitSetOf(8, 80), bitSet);
+    }
+
+    @Test
+    public void testEqualsAcrossRepresentations() {
+        assertEquals(setOf(1, 64), bitSetOf(1, 64));
+        assertEquals(bitSetOf(1, 64), setOf(1, 64));
+        assertEquals(setOf(1, 64).hashCode(), bitSetOf(1, 64).hashCode());
+        assertFalse(setOf(1, 64).equals(bitSetOf(1)));
+        assertFalse(bitSetOf(1).equals(setOf(1, 64)));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Checks that {@link WTOSolver} gives the same results as
+ * the default {@link IterativeSolver}.
+ */
+public class WTOSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/livevar/";
+
+    private static final List<String> PROGRAMS = List.of(
+            "Assign",
+            "Branch",
+            "BranchLoop",
+            "Array",
+            "Fibonacci",
+            "Reference");
+
+    @Test
+    public void testLiveVariables() {
+        LiveVariableAnalysis iterative = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false));
+        LiveVariableAnalysis wto = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "worklist", "wto"));
+        Tests.forEachIR(CLASS_PATH, PROGRAMS,
+                ir -> Tests.assertSameFacts(ir.getResult(CFGBuilder.ID),
+                        iterative.analyze(ir), wto.analyze(ir)));
+    }
+
+    /**
+     * The iterative solver sweeps all statements of the method of the test
+     * case in their order until none of their facts changes, thus each sweep
+     * propagates the facts of a backward analysis by few statements, while
+     * stabilizing the inner loops first needs less than half of the transfers.
+     */
+    @Test
+    public void testNestedLoops() {
+        LiveVariableAnalysis iterative = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false));
+        LiveVariableAnalysis wto = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "worklist", "wto"));
+        for (IR ir : Tests.buildIRs("NestedLoops", "src/test/resources/dataflow/solver/")) {
+            DataflowResult<Stmt, SetFact<Var>> expected = iterative.analyze(ir);
+            DataflowResult<Stmt, SetFact<Var>> actual = wto.analyze(ir);
+            Tests.assertSameFacts(ir.getResult(CFGBuilder.ID), expected, actual);
+            if (ir.getMethod().getName().equals("nestedLoops")) {
+                Assert.assertTrue("Transfers of WTO solver: " + actual.getMetrics() +
+                                ", of iterative solver: " + expected.getMetrics(),
+                        2 * actual.getMetrics().getPops() <
+                                expected.getMetrics().getPops());
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Work-list solver which always processes the pending node that comes
+ * first in reverse postorder (for forward analyses) or postorder
+ * (for backward analyses) of the CFG, so that a node is usually visited
+ * after the nodes which flow into it.
+ * <p>
+ * The work-list is a bit set over the positions of nodes in the order,
+ * thus adding a node, checking its membership and picking the next node
+ * do not depend on the length of the work-list.
+ * The nodes of the CFG must be {@link Indexable}, e.g.,
+ * {@link pascal.taie.ir.stmt.Stmt}, and are mapped to their positions
+ * via {@link Indexable#getIndex()}.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(PriorityWorkListSolver.class);
+
+    /**
+     * If not null, every CFG is solved again by this solver in FIFO order,
+     * to report how many node visits the priority order saves.
+     */
+    private final WorkListSolver<Node, Fact> fifoSolver;
+
+    private final LongAdder savedVisits = new LongAdder();
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis,
+                           boolean compareWithFifo) {
+        super(analysis);
+        fifoSolver = compareWithFifo ? new WorkListSolver<>(analysis) : null;
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        int visits = solveForward(cfg, result);
+        if (fifoSolver != null) {
+            report(cfg, visits, fifoSolver.solveForward(cfg, initialize(cfg)));
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        int visits = solveBackward(cfg, result);
+        if (fifoSolver != null) {
+            report(cfg, visits, fifoSolver.solveBackward(cfg, initialize(cfg)));
+        }
+    }
+
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = postorder(cfg);
+        Collections.reverse(order);
+        int[] positions = positionsOf(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int visits = 0;
+        for (int p = workList.nextSetBit(0); p >= 0; p = workList.nextSetBit(0)) {
+            workList.clear(p);
+            ++visits;
+            Node node = order.get(p);
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.set(positions[indexOf(succ)]);
+                }
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = postorder(cfg);
+        int[] positions = positionsOf(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int visits = 0;
+        for (int p = workList.nextSetBit(0); p >= 0; p = workList.nextSetBit(0)) {
+            workList.clear(p);
+            ++visits;
+            Node node = order.get(p);
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(node, result.getInFact(node), out)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.set(positions[indexOf(pred)]);
+                }
+            }
+        }
+        return visits;
+    }
+
+    /**
+     * @return postorder of depth-first traversal of given CFG from its entry.
+     * Nodes unreachable from the entry are traversed afterwards, so that
+     * the resulting list contains all nodes of the CFG.
+     */
+    private static <Node> List<Node> postorder(CFG<Node> cfg) {
+        int maxIndex = -1;
+        for (Node node : cfg) {
+            maxIndex = Math.max(maxIndex, indexOf(node));
+        }
+        BitSet visited = new BitSet(maxIndex + 1);
+        List<Node> order = new ArrayList<>(cfg.getNumberOfNodes());
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        List<Node> roots = new ArrayList<>(cfg.getNumberOfNodes() + 1);
+        roots.add(cfg.getEntry());
+        cfg.forEach(roots::add);
+        for (Node root : roots) {
+            if (visited.get(indexOf(root))) {
+                continue;
+            }
+            visited.set(indexOf(root));
+            stack.push(root);
+            succs.push(cfg.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> it = succs.peek();
+                if (it.hasNext()) {
+                    Node succ = it.next();
+                    if (!visited.get(indexOf(succ))) {
+                        visited.set(indexOf(succ));
+                        stack.push(succ);
+                        succs.push(cfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    order.add(stack.pop());
+                    succs.pop();
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return an array which maps the index of each node to
+     * its position in given order.
+     */
+    private static <Node> int[] positionsOf(List<Node> order) {
+        int maxIndex = -1;
+        for (Node node : order) {
+            maxIndex = Math.max(maxIndex, indexOf(node));
+        }
+        int[] positions = new int[maxIndex + 1];
+        for (int i = 0; i < order.size(); ++i) {
+            positions[indexOf(order.get(i))] = i;
+        }
+        return positions;
+    }
+
+    private static int indexOf(Object node) {
+        return ((Indexable) node).getIndex();
+    }
+
+    private void report(CFG<Node> cfg, int visits, int fifoVisits) {
+        savedVisits.add(fifoVisits - visits);
+        logger.info("{}: {} node visits in priority order, {} in FIFO order," +
+                        " {} saved ({} saved in total)", cfg.getMethod(),
+                visits, fifoVisits, fifoVisits - visits, savedVisits.sum());
+    }
+}
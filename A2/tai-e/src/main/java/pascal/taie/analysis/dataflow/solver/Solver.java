@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -49,6 +51,31 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * according to the work-list strategy specified in the options:
+     * <ul>
+     *     <li>{@code worklist: fifo} (default): visits nodes in FIFO order.</li>
+     *     <li>{@code worklist: priority}: visits nodes in reverse postorder
+     *     (postorder for backward analyses). The CFG nodes must be
+     *     {@link pascal.taie.util.Indexable}. If {@code worklist-stats: true}
+     *     is also given, the solver reports the node visits it saves
+     *     compared with FIFO order.</li>
+     * </ul>
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        String worklist = options.getString("worklist");
+        if (worklist == null || worklist.equals("fifo")) {
+            return makeSolver(analysis);
+        } else if (worklist.equals("priority")) {
+            return new PriorityWorkListSolver<>(analysis,
+                    options.getBooleanOrDefault("worklist-stats", false));
+        } else {
+            throw new ConfigException("Unknown work-list strategy: " + worklist);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -66,7 +93,7 @@ public abstract class Solver<Node, Fact> {
      *
      * @return the initialized data-flow result
      */
-    private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
+    DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = new DataflowResult<>();
         if (analysis.isForward()) {
             initializeForward(cfg, result);
@@ -27,6 +27,9 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import java.util.LinkedList;
 
+/**
+ * Work-list solver which processes nodes in FIFO order.
+ */
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
@@ -35,13 +38,26 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
+        solveForward(cfg, result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveBackward(cfg, result);
+    }
+
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         var list = new LinkedList<Node>();
         for(Node node: cfg)
             list.add(node);
 
+        int visits = 0;
         while(!list.isEmpty()){
             var node = list.removeFirst();
+            ++visits;
             var in = result.getInFact(node);
             for(Node n: cfg.getPredsOf(node))
                 analysis.meetInto(result.getOutFact(n), in);
@@ -50,11 +66,13 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
                     if(!list.contains(n))
                         list.add(n);
         }
-
+        return visits;
     }
 
-    @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         throw new UnsupportedOperationException();
     }
 }
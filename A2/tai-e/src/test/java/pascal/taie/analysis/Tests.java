@@ -25,14 +25,24 @@ package pascal.taie.analysis;
 import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Static utility methods for testing.
@@ -135,6 +145,74 @@ public final class Tests {
         Main.main(args.toArray(new String[0]));
     }
 
+    /**
+     * Builds the world for a specific test case, and builds the CFGs of
+     * the application methods, without running any analyses.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @return the IRs of the application methods, in which the CFGs
+     * have been stored.
+     */
+    public static List<IR> buildIRs(String main, String classPath) {
+        World.reset();
+        Main.buildWorld("-pp", "-cp", classPath, "-m", main);
+        List<IR> irs = World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+        irs.forEach(Tests::buildCFG);
+        return irs;
+    }
+
+    /**
+     * Builds the IRs of given test cases by {@link #buildIRs(String, String)},
+     * and passes each of them to given consumer.
+     *
+     * @param classPath where the main classes are located
+     * @param programs  the main classes to be analyzed
+     * @param consumer  the action for each IR
+     */
+    public static void forEachIR(String classPath, List<String> programs,
+                                 Consumer<IR> consumer) {
+        for (String program : programs) {
+            buildIRs(program, classPath).forEach(consumer);
+        }
+    }
+
+    /**
+     * Builds the CFG of given IR, and stores it in the IR.
+     */
+    public static CFG<Stmt> buildCFG(IR ir) {
+        ThrowAnalysis throwAnalysis = new ThrowAnalysis(new AnalysisConfig(
+                ThrowAnalysis.ID, "exception", "explicit", "algorithm", "intra"));
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "explicit", "dump", false));
+        ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+        CFG<Stmt> cfg = cfgBuilder.analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return cfg;
+    }
+
+    /**
+     * Asserts that two results have equal in and out facts for every
+     * node of given CFG.
+     */
+    public static <Fact> void assertSameFacts(CFG<Stmt> cfg,
+                                              NodeResult<Stmt, Fact> expected,
+                                              NodeResult<Stmt, Fact> actual) {
+        for (Stmt node : cfg) {
+            Assert.assertEquals("In fact of " + node + " in " + cfg.getMethod(),
+                    expected.getInFact(node), actual.getInFact(node));
+            Assert.assertEquals("Out fact of " + node + " in " + cfg.getMethod(),
+                    expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
     /**
      * @param dir  the directory containing the test case
      * @param main main class of the test case
@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Checks that {@link PriorityWorkListSolver} gives the same results as
+ * the default {@link WorkListSolver}, and does not visit more nodes.
+ * Only forward analyses are checked, as solving backward analyses
+ * is not supported by {@link WorkListSolver}.
+ */
+public class PriorityWorkListSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/";
+
+    private static final List<String> PROGRAMS = List.of(
+            "Assign",
+            "SimpleConstant",
+            "SimpleBinary",
+            "SimpleBranch",
+            "SimpleChar",
+            "BranchConstant",
+            "Interprocedural");
+
+    @Test
+    public void testConstantPropagation() {
+        ConstantPropagation fifo = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        ConstantPropagation priority = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID,
+                        "edge-refine", false, "worklist", "priority"));
+        Tests.forEachIR(CLASS_PATH, PROGRAMS,
+                ir -> Tests.assertSameFacts(ir.getResult(CFGBuilder.ID),
+                        fifo.analyze(ir), priority.analyze(ir)));
+    }
+
+    /**
+     * Visiting the nodes in reverse postorder propagates the facts
+     * into the nested loops of the test case before visiting the loops,
+     * while FIFO order visits the loops again after the facts arrive.
+     */
+    @Test
+    public void testNestedLoops() {
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        WorkListSolver<Stmt, CPFact> fifo = new WorkListSolver<>(constprop);
+        PriorityWorkListSolver<Stmt, CPFact> priority =
+                new PriorityWorkListSolver<>(constprop, false);
+        for (IR ir : Tests.buildIRs("NestedLoops", "src/test/resources/dataflow/solver/")) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, CPFact> expected = fifo.initialize(cfg);
+            int fifoVisits = fifo.solveForward(cfg, expected);
+            DataflowResult<Stmt, CPFact> actual = priority.initialize(cfg);
+            int visits = priority.solveForward(cfg, actual);
+            Tests.assertSameFacts(cfg, expected, actual);
+            Assert.assertTrue("Node visits in priority order: " + visits +
+                            ", in FIFO order: " + fifoVisits,
+                    visits <= fifoVisits);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+class NestedLoops {
+
+    int nestedLoops(int n) {
+        int a = 0;
+        int b = 1;
+        int c = 2;
+        int d = 3;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < n; k++) {
+                    a = b;
+                    b = c;
+                    c = d;
+                    d = k;
+                }
+            }
+        }
+        return a;
+    }
+}
@@ -7,10 +7,21 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks of the data-flow solvers, run by task "jmh"
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName]
+    .extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation(files("lib/tai-e-assignment.jar"))
     implementation(files("../../lib/dependencies.jar"))
     testImplementation("junit:junit:4.13")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -19,12 +30,27 @@ application {
 
 tasks.compileJava { options.encoding = "UTF-8" }
 tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.named<JavaCompile>(jmh.compileJavaTaskName) { options.encoding = "UTF-8" }
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+// Runs the benchmarks with the GC profiler, which reports allocation rate
+// in addition to throughput. Regex of benchmarks to run can be given by
+// -Pjmh.includes=..., e.g., -Pjmh.includes=SolverBenchmark.livevar
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks of the data-flow solvers."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { results.parentFile.mkdirs() }
+    args(listOfNotNull(project.findProperty("jmh.includes")?.toString()))
+    args("-prof", "gc", "-rf", "json", "-rff", results.absolutePath)
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
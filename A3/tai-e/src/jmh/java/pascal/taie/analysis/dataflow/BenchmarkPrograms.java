@@ -0,0 +1,160 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loads the programs analyzed by the benchmarks, i.e., the test programs
+ * in {@link #TEST_PROGRAMS}, and a synthetic program {@link #ENLARGED}
+ * whose method is much larger than those of the test programs.
+ */
+final class BenchmarkPrograms {
+
+    private BenchmarkPrograms() {
+    }
+
+    static final String TEST_PROGRAMS = "src/test/resources/dataflow/deadcode";
+
+    static final String ENLARGED = "Enlarged";
+
+    /**
+     * Number of copies of the code template in the method of {@link #ENLARGED}.
+     */
+    private static final int ENLARGED_COPIES = 64;
+
+    /**
+     * Builds the world for given program, and computes the CFGs of
+     * the application methods.
+     *
+     * @param program main class of a test program, or {@link #ENLARGED}
+     * @return the IRs of the application methods of given program.
+     * The CFG of each IR has been stored in the IR.
+     */
+    static List<IR> load(String program) {
+        String classPath = program.equals(ENLARGED) ?
+                writeEnlarged() : TEST_PROGRAMS;
+        World.reset();
+        Main.buildWorld("-pp", "-cp", classPath, "-m", program);
+        ThrowAnalysis throwAnalysis = new ThrowAnalysis(new AnalysisConfig(
+                ThrowAnalysis.ID, "exception", "explicit", "algorithm", "intra"));
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "explicit", "dump", false));
+        List<IR> irs = World.get()
+                .getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+        for (IR ir : irs) {
+            ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+            ir.storeResult(CFGBuilder.ID, cfgBuilder.analyze(ir));
+        }
+        return irs;
+    }
+
+    /**
+     * Writes the source of {@link #ENLARGED} to a temporary directory.
+     *
+     * @return the directory.
+     */
+    private static String writeEnlarged() {
+        try {
+            Path dir = Files.createTempDirectory("tai-e-jmh");
+            Files.writeString(dir.resolve(ENLARGED + ".java"), enlargedSource());
+            return dir.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + ENLARGED, e);
+        }
+    }
+
+    /**
+     * @return source of {@link #ENLARGED}, whose method {@code run} repeats
+     * a template that contains constants, branches with constant
+     * conditions, loops, switches and dead assignments.
+     */
+    private static String enlargedSource() {
+        StringBuilder source = new StringBuilder("""
+                class Enlarged {
+
+                    int run(int n, int m) {
+                        int x = 0, y = 1;
+                """);
+        for (int i = 0; i < ENLARGED_COPIES; ++i) {
+            source.append("""
+                            int a%1$d = x + %1$d;
+                            int b%1$d = a%1$d * 2;
+                            int c%1$d = %1$d * 3;
+                            if (c%1$d < 0) {
+                                y = b%1$d;
+                            }
+                            if (a%1$d > n) {
+                                x = b%1$d - m;
+                            } else {
+                                y = y + a%1$d;
+                            }
+                            for (int i%1$d = 0; i%1$d < n; ++i%1$d) {
+                                x = x + i%1$d;
+                                int d%1$d = y * m;
+                            }
+                            switch (c%1$d %% 4) {
+                                case 0:
+                                    y = x;
+                                    break;
+                                case 1:
+                                    x = y;
+                                    break;
+                                default:
+                                    m = m + 1;
+                            }
+                    """.formatted(i));
+        }
+        source.append("""
+                        return x + y;
+                    }
+
+                    public static void main(String[] args) {
+                        new Enlarged().run(args.length, 42);
+                    }
+                }
+                """);
+        return source.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+/**
+ * Benchmarks of constant propagation under the fact representations
+ * supported by option "fact" of {@link ConstantPropagation}.
+ */
+public class CPFactBenchmark extends DataflowBenchmark {
+
+    @Param({"hybrid", "persistent", "array"})
+    public String fact;
+
+    private ConstantPropagation constprop;
+
+    @Setup(Level.Trial)
+    public void makeAnalysis() {
+        constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "fact", fact));
+    }
+
+    @Benchmark
+    public void constprop(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(constprop.analyze(ir));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+/**
+ * Benchmarks of live variable analysis under the propagation modes
+ * supported by option "propagation" of
+ * {@link pascal.taie.analysis.dataflow.solver.Solver#makeSolver},
+ * i.e., "full" for propagating whole facts and "delta" for propagating
+ * the newly added elements of facts.
+ */
+public class PropagationBenchmark extends DataflowBenchmark {
+
+    @Param({"full", "delta"})
+    public String propagation;
+
+    private LiveVariableAnalysis liveVars;
+
+    @Setup(Level.Trial)
+    public void makeAnalysis() {
+        liveVars = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "propagation", propagation));
+    }
+
+    @Benchmark
+    public void livevar(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(liveVars.analyze(ir));
+        }
+    }
+}
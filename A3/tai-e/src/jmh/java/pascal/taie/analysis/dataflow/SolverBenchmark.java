@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+
+/**
+ * Benchmarks of live variable analysis, constant propagation and
+ * dead code detection under the solver strategies supported by
+ * {@link pascal.taie.analysis.dataflow.solver.Solver#makeSolver},
+ * i.e., "fifo", "priority" and "wto" orders of visiting statements,
+ * and "block" for the work-list on basic blocks.
+ */
+public class SolverBenchmark extends DataflowBenchmark {
+
+    @Param({"fifo", "priority", "wto", "block"})
+    public String strategy;
+
+    private LiveVariableAnalysis liveVars;
+
+    private ConstantPropagation constprop;
+
+    private DeadCodeDetection deadCode;
+
+    @Setup(Level.Trial)
+    public void makeAnalyses() {
+        String worklist = strategy.equals("block") ? "fifo" : strategy;
+        String granularity = strategy.equals("block") ? "block" : "stmt";
+        liveVars = new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                "worklist", worklist, "granularity", granularity));
+        constprop = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "worklist", worklist, "granularity", granularity));
+        deadCode = new DeadCodeDetection(new AnalysisConfig(DeadCodeDetection.ID));
+    }
+
+    @Benchmark
+    public void livevar(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(liveVars.analyze(ir));
+        }
+    }
+
+    @Benchmark
+    public void constprop(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(constprop.analyze(ir));
+        }
+    }
+
+    /**
+     * Runs dead code detection together with the analyses it requires,
+     * as the latter dominate its cost.
+     */
+    @Benchmark
+    public void deadcode(Blackhole bh) {
+        for (IR ir : irs) {
+            ir.storeResult(ConstantPropagation.ID, constprop.analyze(ir));
+            ir.storeResult(LiveVariableAnalysis.ID, liveVars.analyze(ir));
+            bh.consume(deadCode.analyze(ir));
+        }
+    }
+}
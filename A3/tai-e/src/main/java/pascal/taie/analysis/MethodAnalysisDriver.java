@@ -0,0 +1,263 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Runs a sequence of method analyses, e.g., livevar, constprop and
+ * deadcode, over all methods in the scope on a {@link ForkJoinPool}
+ * with configurable number of threads.
+ * <p>
+ * Each method is handled by a single {@link ForkJoinTask}, which executes
+ * the analyses on the IR of the method in the given order and stores their
+ * results in the IR, so that an analysis can use the results of its
+ * preceding analyses on the same IR. As every {@link IR} is only accessed
+ * by one task, storing results in it needs no synchronization, and all
+ * results are visible to the subsequent analyses (e.g.,
+ * {@link ResultProcessor}) after the driver joins the tasks. The results do not depend on the scheduling
+ * of the tasks, thus are dumped in the same order as sequential runs.
+ * <p>
+ * The analysis instances are shared by all tasks, thus their
+ * {@link MethodAnalysis#analyze(IR)} may be called concurrently on
+ * different IRs. This is safe as the method analyses given to this driver
+ * only keep their options (and the solvers made from them) in their
+ * fields, and keep the state of analyzing a method in local variables,
+ * in the results, and in the IR of the method. A method analysis which
+ * caches data across methods in its fields must synchronize the accesses
+ * to the data before it can be given to this driver.
+ * <p>
+ * The analyses given to this driver should not be added to the plan
+ * separately, otherwise they are executed twice.
+ * <p>
+ * If option "cache" gives a file, the results of the analyses are cached
+ * in the file across runs (see {@link MethodResultCache}), and a cached
+ * result is stored in the IR without running the analysis. A result is
+ * cached together with a hash of its inputs, i.e., the IR and the results
+ * of the preceding analyses, thus it is missed once any of them changes.
+ */
+public class MethodAnalysisDriver extends ProgramAnalysis {
+
+    public static final String ID = "method-analyses";
+
+    private static final Logger logger = LogManager.getLogger(MethodAnalysisDriver.class);
+
+    public MethodAnalysisDriver(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Object analyze() {
+        List<MethodAnalysis> analyses = makeAnalyses();
+        List<IR> irs = getMethodScope()
+                .stream()
+                .map(JMethod::getIR)
+                .toList();
+        String cacheFile = getOptions().getString("cache");
+        MethodResultCache cache = cacheFile != null ?
+                MethodResultCache.open(Path.of(cacheFile)) : null;
+        int threads = getOptions().getInt("threads");
+        Timer.runAndCount(() -> analyze(irs, analyses, cache, threads), ID);
+        if (cache != null) {
+            cache.save();
+        }
+        return null;
+    }
+
+    /**
+     * Runs given analyses on given IRs on a pool of given number of threads
+     * (all available processors if it is not positive), with one task per IR.
+     */
+    static void analyze(List<IR> irs, List<MethodAnalysis> analyses,
+                        MethodResultCache cache, int threads) {
+        ForkJoinPool pool = threads > 0 ?
+                new ForkJoinPool(threads) : new ForkJoinPool();
+        logger.info("Running {} on {} methods with {} threads",
+                analyses.stream().map(Analysis::getId).toList(),
+                irs.size(), pool.getParallelism());
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(irs.size());
+            for (IR ir : irs) {
+                tasks.add(pool.submit(() -> analyze(ir, analyses, cache)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new AnalysisException("Failed to run method analyses", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void analyze(IR ir, List<MethodAnalysis> analyses,
+                                MethodResultCache cache) {
+        long irHash = cache != null ? MethodResultCache.hash(ir) : 0;
+        for (MethodAnalysis analysis : analyses) {
+            Object result;
+            OptionalLong hash = cache != null ?
+                    MethodResultCache.hashInputs(irHash, ir, analysis.getId()) :
+                    OptionalLong.empty();
+            if (hash.isPresent()) {
+                String key = MethodResultCache.keyOf(ir, analysis);
+                result = cache.get(key, hash.getAsLong(), ir, analysis);
+                if (result == null) {
+                    result = analysis.analyze(ir);
+                    cache.put(key, hash.getAsLong(), ir, result);
+                }
+            } else {
+                result = analysis.analyze(ir);
+            }
+            if (result != null) {
+                ir.storeResult(analysis.getId(), result);
+            }
+        }
+    }
+
+    /**
+     * Creates the method analyses specified by option "analyses".
+     * Options of each analysis are its default options (in the analysis
+     * configuration file) overridden by the map keyed by its ID (if any)
+     * in the options of this driver.
+     */
+    private List<MethodAnalysis> makeAnalyses() {
+        @SuppressWarnings("unchecked")
+        List<String> ids = (List<String>) getOptions().get("analyses");
+        return ids.stream()
+                .map(id -> makeAnalysis(id, getOptions()))
+                .toList();
+    }
+
+    /**
+     * Creates the method analysis of given ID. Its options are its default
+     * options (in the analysis configuration file) overridden by the map
+     * keyed by its ID (if any) in given options.
+     *
+     * @throws ConfigException if the analysis is not found or is not
+     *                         a method analysis
+     */
+    public static MethodAnalysis makeAnalysis(String id, AnalysisOptions options) {
+        AnalysisConfig config = AnalysisConfig.parseConfigs(
+                        Configs.getAnalysisConfig())
+                .stream()
+                .filter(c -> c.getId().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new ConfigException(
+                        "Analysis \"" + id + "\" is not found in " +
+                                Configs.getAnalysisConfigURL()));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> overrides = (Map<String, Object>) options.get(id);
+        if (overrides != null) {
+            config = new AnalysisConfig(config.getDescription(),
+                    config.getAnalysisClass(), config.getId(), List.of(),
+                    new OverriddenOptions(overrides, config.getOptions()));
+        }
+        try {
+            Object analysis = Class.forName(config.getAnalysisClass())
+                    .getConstructor(AnalysisConfig.class)
+                    .newInstance(config);
+            if (analysis instanceof MethodAnalysis methodAnalysis) {
+                return methodAnalysis;
+            }
+            throw new ConfigException(id + " is not a method analysis");
+        } catch (ReflectiveOperationException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    /**
+     * @return the methods in the scope, which is the same as the scope
+     * in which the analysis manager runs method analyses.
+     */
+    private static List<JMethod> getMethodScope() {
+        String scope = World.get().getOptions().getScope();
+        Stream<JClass> classes = switch (scope) {
+            case "app" -> World.get().getClassHierarchy().applicationClasses();
+            case "all" -> World.get().getClassHierarchy().allClasses();
+            default -> throw new ConfigException(
+                    "Unsupported scope of " + ID + ": " + scope);
+        };
+        return classes.map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .toList();
+    }
+
+    /**
+     * Analysis options whose values are first looked up in overrides,
+     * and then in the default options.
+     */
+    private static class OverriddenOptions extends AnalysisOptions {
+
+        private final Map<String, Object> overrides;
+
+        private final AnalysisOptions defaults;
+
+        private OverriddenOptions(Map<String, Object> overrides,
+                                  AnalysisOptions defaults) {
+            super(overrides);
+            this.overrides = overrides;
+            this.defaults = defaults;
+        }
+
+        @Override
+        public Object get(String key) {
+            return overrides.containsKey(key) ?
+                    overrides.get(key) : defaults.get(key);
+        }
+
+        @Override
+        public boolean getBooleanOrDefault(String key, boolean defaultValue) {
+            Object value = get(key);
+            return value != null ? (Boolean) value : defaultValue;
+        }
+
+        @Override
+        public String toString() {
+            return defaults + " overridden by " + overrides;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ArrayCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of the results of method analyses, which is stored in
+ * a binary file and memory-mapped when opened.
+ * <p>
+ * An entry is keyed by the signature of the method and the ID and options
+ * of the analysis, and records a hash of the inputs of the analysis,
+ * i.e., the IR of the method and the results which other analyses stored
+ * in the IR before it (e.g., the CFG, and the results of livevar and
+ * constprop used by deadcode), thus the entry is missed (and then
+ * replaced) once the method or the configurations of the analyses which
+ * the analysis requires change (see {@link #hashInputs}).
+ * Only results which can be encoded by the indexes of statements and
+ * variables are cached, i.e., sets of statements and data-flow results
+ * whose facts are {@link SetFact}s of variables or {@link CPFact}s,
+ * e.g., the results of deadcode, livevar and constprop. Data-flow results
+ * are encoded and decoded over the CFG of the method, which must have been
+ * stored in the IR, and the decoded facts are created by the analysis,
+ * e.g., in the representation given by option "fact" of constprop.
+ * <p>
+ * The file consists of a header (magic number, version and number of
+ * entries) and the entries, each of which consists of the key in UTF-8,
+ * the hash of the inputs and the encoded result, and the key and the result
+ * are prefixed with their lengths. {@link #save()} rewrites the file with
+ * the entries loaded from the file and the entries put since then.
+ * <p>
+ * The methods of this class can be called concurrently by the tasks
+ * which analyze different methods.
+ */
+final class MethodResultCache {
+
+    private static final Logger logger = LogManager.getLogger(MethodResultCache.class);
+
+    private static final int MAGIC = 0x54414945; // "TAIE"
+
+    private static final int VERSION = 2;
+
+    /**
+     * Kinds of the encoded results.
+     */
+    private static final byte SET_FACTS = 1, CP_FACTS = 2, STMTS = 3;
+
+    private final Path file;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean changed;
+
+    private MethodResultCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the cache stored in given file. If the file does not exist,
+     * or it is not a cache of this version, an empty cache is returned.
+     */
+    static MethodResultCache open(Path file) {
+        MethodResultCache cache = new MethodResultCache(file);
+        if (!Files.exists(file)) {
+            return cache;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open method result cache " + file, e);
+        }
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION) {
+            logger.warn("Ignoring {} which is not a method result cache of version {}",
+                    file, VERSION);
+            return cache;
+        }
+        int count = buffer.getInt();
+        for (int i = 0; i < count; ++i) {
+            byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            long hash = buffer.getLong();
+            int length = buffer.getInt();
+            ByteBuffer data = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            cache.entries.put(new String(key, StandardCharsets.UTF_8),
+                    new Entry(hash, data));
+        }
+        logger.info("Loaded {} method results from {}", count, file);
+        return cache;
+    }
+
+    /**
+     * @return the key of the result of given analysis on given IR.
+     */
+    static String keyOf(IR ir, MethodAnalysis analysis) {
+        return ir.getMethod().getSignature() + '|' + analysis.getId()
+                + '|' + analysis.getOptions();
+    }
+
+    /**
+     * @return a hash of the printed form of given IR.
+     */
+    static long hash(IR ir) {
+        MessageDigest digest = newDigest();
+        IRPrinter.print(ir, new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                digest.update((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                digest.update(b, off, len);
+            }
+        }, false, StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * @return a hash of the inputs of given analysis on given IR, i.e.,
+     * given hash of the IR, and the results stored in the IR except
+     * the result of the analysis itself. The CFG is hashed by its edges,
+     * the result of throw analysis is skipped as it is reflected by
+     * the exceptional edges of the CFG, and the other results are hashed
+     * by their encoded forms. If a result can be neither encoded nor
+     * hashed otherwise, e.g., a result of sccp, empty is returned and
+     * the result of the analysis should not be cached.
+     */
+    static OptionalLong hashInputs(long irHash, IR ir, String id) {
+        MessageDigest digest = newDigest();
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(irHash).array());
+        for (String key : new TreeSet<>(ir.getKeys())) {
+            if (key.equals(id) || key.equals(ThrowAnalysis.ID)) {
+                continue;
+            }
+            Object result = ir.getResult(key);
+            byte[] data;
+            if (key.equals(CFGBuilder.ID) && result instanceof CFG<?> cfg) {
+                @SuppressWarnings("unchecked")
+                CFG<Stmt> stmtCFG = (CFG<Stmt>) cfg;
+                data = encodeEdges(stmtCFG);
+            } else {
+                data = encode(result, ir);
+            }
+            if (data == null) {
+                return OptionalLong.empty();
+            }
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            digest.update(data);
+        }
+        return OptionalLong.of(ByteBuffer.wrap(digest.digest()).getLong());
+    }
+
+    /**
+     * @return the edges of given CFG, each of which is encoded by
+     * the indexes of its source and target, its kind and its case value.
+     */
+    private static byte[] encodeEdges(CFG<Stmt> cfg) {
+        List<String> edges = new ArrayList<>();
+        for (Stmt node : cfg) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                edges.add(edge.getSource().getIndex() + ">" +
+                        edge.getTarget().getIndex() + ":" + edge.getKind() +
+                        (edge.isSwitchCase() ? ":" + edge.getCaseValue() : ""));
+            }
+        }
+        Collections.sort(edges);
+        return String.join(",", edges).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+    }
+
+    /**
+     * @return the cached result of given key for given inputs, or null if
+     * the result is not cached, or the inputs changed since it was cached.
+     * The facts of a cached data-flow result are created by given
+     * analysis, so that they are in the same representation as
+     * the facts computed by the analysis.
+     */
+    Object get(String key, long hash, IR ir, MethodAnalysis analysis) {
+        Entry entry = entries.get(key);
+        Object result = entry != null && entry.hash == hash ?
+                decode(entry.data.duplicate(), ir, analysis) : null;
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    /**
+     * Caches given result of given key for given inputs, if the result
+     * can be encoded.
+     */
+    void put(String key, long hash, IR ir, Object result) {
+        byte[] data = encode(result, ir);
+        if (data != null) {
+            entries.put(key, new Entry(hash, ByteBuffer.wrap(data)));
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the entries of this cache to its file if any entry has been
+     * put since the cache was opened.
+     */
+    void save() {
+        logger.info("Method result cache: {} hits, {} misses",
+                hits.sum(), misses.sum());
+        if (!changed) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                Files.newOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+                byte[] key = e.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(e.getValue().hash);
+                ByteBuffer data = e.getValue().data.duplicate();
+                out.writeInt(data.remaining());
+                byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write method result cache " + temp, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write method result cache " + file, e);
+        }
+        logger.info("Saved {} method results to {}", entries.size(), file);
+    }
+
+    /**
+     * @return the encoded result, or null if the result cannot be encoded.
+     */
+    private static byte[] encode(Object result, IR ir) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            if (result instanceof DataflowResult<?, ?> dataflowResult) {
+                if (result.getClass() != ArrayDataflowResult.class &&
+                        result.getClass() != DataflowResult.class) {
+                    // subclasses carry more than facts (e.g., CCPResult)
+                    return null;
+                }
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                if (cfg == null) {
+                    return null;
+                }
+                @SuppressWarnings("unchecked")
+                DataflowResult<Stmt, ?> stmtResult = (DataflowResult<Stmt, ?>) dataflowResult;
+                Object entryFact = stmtResult.getInFact(cfg.getEntry());
+                byte kind;
+                if (entryFact instanceof SetFact<?>) {
+                    kind = SET_FACTS;
+                } else if (entryFact instanceof CPFact) {
+                    kind = CP_FACTS;
+                } else {
+                    return null;
+                }
+                out.writeByte(kind);
+                out.writeInt(cfg.getNumberOfNodes());
+                for (Stmt node : cfg) {
+                    out.writeInt(node.getIndex());
+                    if (!writeFact(out, kind, stmtResult.getInFact(node), ir) ||
+                            !writeFact(out, kind, stmtResult.getOutFact(node), ir)) {
+                        return null;
+                    }
+                }
+            } else if (result instanceof Set<?> set) {
+                out.writeByte(STMTS);
+                out.writeInt(set.size());
+                for (Object e : set) {
+                    if (!(e instanceof Stmt stmt) || ir.getStmt(stmt.getIndex()) != stmt) {
+                        return null;
+                    }
+                    out.writeInt(stmt.getIndex());
+                }
+            } else {
+                return null;
+            }
+        } catch (IOException e) {
+            // never happens when writing to a byte array
+            throw new AnalysisException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return false if given fact is not of given kind.
+     */
+    private static boolean writeFact(DataOutputStream out, byte kind,
+                                     Object fact, IR ir) throws IOException {
+        if (kind == SET_FACTS && fact instanceof SetFact<?> setFact) {
+            List<?> elems = setFact.stream().toList();
+            out.writeInt(elems.size());
+            for (Object e : elems) {
+                if (!(e instanceof Var var) || !isVarOf(var, ir)) {
+                    return false;
+                }
+                out.writeInt(var.getIndex());
+            }
+            return true;
+        } else if (kind == CP_FACTS && fact instanceof CPFact cpFact) {
+            List<Var> vars = cpFact.keySet().stream().toList();
+            out.writeInt(vars.size());
+            for (Var var : vars) {
+                if (!isVarOf(var, ir)) {
+                    return false;
+                }
+                out.writeInt(var.getIndex());
+                out.writeLong(ArrayCPFact.pack(cpFact.get(var)));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isVarOf(Var var, IR ir) {
+        int index = var.getIndex();
+        return index < ir.getVars().size() && ir.getVar(index) == var;
+    }
+
+    /**
+     * @return the decoded result, or null if the result cannot be decoded.
+     */
+    private static Object decode(ByteBuffer data, IR ir, MethodAnalysis analysis) {
+        byte kind = data.get();
+        if (kind == STMTS) {
+            Set<Stmt> stmts = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+            for (int i = data.getInt(); i > 0; --i) {
+                stmts.add(ir.getStmt(data.getInt()));
+            }
+            return stmts;
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (cfg == null || !(analysis instanceof DataflowAnalysis<?, ?> dataflow)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        DataflowAnalysis<Stmt, ?> stmtAnalysis = (DataflowAnalysis<Stmt, ?>) dataflow;
+        Stmt[] nodes = new Stmt[cfg.getNumberOfNodes()];
+        for (Stmt node : cfg) {
+            if (node.getIndex() >= nodes.length) {
+                return null;
+            }
+            nodes[node.getIndex()] = node;
+        }
+        DataflowResult<Stmt, Object> result = new ArrayDataflowResult<>(cfg);
+        for (int i = data.getInt(); i > 0; --i) {
+            Stmt node = nodes[data.getInt()];
+            Object inFact = readFact(data, kind, ir, stmtAnalysis.newInitialFact(cfg));
+            Object outFact = readFact(data, kind, ir, stmtAnalysis.newInitialFact(cfg));
+            if (inFact == null || outFact == null) {
+                return null;
+            }
+            result.setInFact(node, inFact);
+            result.setOutFact(node, outFact);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the elements of a fact into given empty fact.
+     *
+     * @return the fact, or null if it is not of given kind.
+     */
+    private static Object readFact(ByteBuffer data, byte kind, IR ir, Object fact) {
+        int size = data.getInt();
+        if (kind == SET_FACTS && fact instanceof SetFact<?>) {
+            @SuppressWarnings("unchecked")
+            SetFact<Var> setFact = (SetFact<Var>) fact;
+            for (int i = 0; i < size; ++i) {
+                setFact.add(ir.getVar(data.getInt()));
+            }
+            return setFact;
+        } else if (kind == CP_FACTS && fact instanceof CPFact cpFact) {
+            for (int i = 0; i < size; ++i) {
+                Var var = ir.getVar(data.getInt());
+                cpFact.update(var, ArrayCPFact.unpack(data.getLong()));
+            }
+            return cpFact;
+        }
+        return null;
+    }
+
+    /**
+     * An entry of the cache. The data of the entries loaded from the file
+     * are views of the mapped file.
+     */
+    private static class Entry {
+
+        private final long hash;
+
+        private final ByteBuffer data;
+
+        private Entry(long hash, ByteBuffer data) {
+            this.hash = hash;
+            this.data = data;
+        }
+    }
+}
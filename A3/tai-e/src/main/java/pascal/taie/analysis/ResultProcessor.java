@@ -25,12 +25,16 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Pair;
@@ -41,6 +45,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -98,6 +103,10 @@ public class ResultProcessor extends ProgramAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        String metricsFormat = getOptions().getString("metrics");
+        if (metricsFormat != null) {
+            dumpMetrics(groups, metricsFormat);
+        }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
@@ -153,15 +162,68 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        processResults(getIntraMethods(), analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    /**
+     * @return the methods whose intra-procedural results are processed.
+     */
+    private static Stream<JMethod> getIntraMethods() {
+        return World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
                 .flatMap(Collection::stream)
                 .filter(m -> !m.isAbstract() && !m.isNative())
-                .sorted(Comparator.comparing(m ->
-                        m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
+                .sorted(Comparator.<JMethod>comparingInt(m ->
+                                m.getIR().getStmt(0).getLineNumber())
+                        .thenComparing(JMethod::getSignature));
+    }
+
+    /**
+     * Dumps the {@link SolverMetrics} carried by the data-flow results of
+     * given analyses in given format ("csv" or "json") to the file
+     * specified by option "metrics-file", or to standard output if
+     * the option is null.
+     */
+    private void dumpMetrics(Map<Boolean, List<String>> groups, String format) {
+        if (!format.equals("csv") && !format.equals("json")) {
+            throw new ConfigException("Unknown metrics format: " + format);
+        }
+        List<String> rows = new ArrayList<>();
+        if (groups.containsKey(false)) {
+            getIntraMethods().forEach(method ->
+                    groups.get(false).forEach(id -> addMetricsRow(rows,
+                            method.getIR().getResult(id), method.toString(), id, format)));
+        }
+        String file = getOptions().getString("metrics-file");
+        PrintStream metricsOut;
+        try {
+            metricsOut = file != null ? new PrintStream(file) : System.out;
+        } catch (FileNotFoundException e) {
+            throw new AnalysisException("Failed to open metrics file", e);
+        }
+        if (format.equals("csv")) {
+            metricsOut.println(SolverMetrics.CSV_HEADER);
+            rows.forEach(metricsOut::println);
+        } else {
+            metricsOut.println("[");
+            metricsOut.println(String.join(",\n", rows));
+            metricsOut.println("]");
+        }
+        if (file != null) {
+            metricsOut.close();
+        }
+    }
+
+    private static void addMetricsRow(List<String> rows, Object result,
+                                      String target, String id, String format) {
+        if (result instanceof DataflowResult<?, ?> dataflowResult &&
+                dataflowResult.getMetrics() != null) {
+            SolverMetrics metrics = dataflowResult.getMetrics();
+            rows.add(format.equals("csv") ?
+                    metrics.toCSV(target, id) : metrics.toJSON(target, id));
+        }
     }
 
     private void processResults(Stream<JMethod> methods, List<String> analyses,
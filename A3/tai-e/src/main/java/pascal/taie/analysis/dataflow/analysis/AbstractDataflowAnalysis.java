@@ -31,6 +31,8 @@ import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import java.util.Set;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
@@ -39,7 +41,7 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, getOptions());
     }
 
     @Override
@@ -48,6 +50,21 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
         return solver.solve(cfg);
     }
 
+    /**
+     * Analyzes given IR incrementally after some of its statements changed,
+     * by reusing the result of analyzing the IR before the changes.
+     *
+     * @param previous the result of analyzing the IR before the changes
+     * @param changed  the nodes which are new or changed, and the nodes
+     *                 whose incoming or outgoing edges changed
+     * @see Solver#solve(CFG, DataflowResult, Set)
+     */
+    public DataflowResult<Node, Fact> analyze(IR ir, DataflowResult<Node, Fact> previous,
+                                              Set<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        return solver.solve(cfg, previous, changed);
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer, i.e.,
      * does not need to perform transfer for any edges.
@@ -49,6 +49,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * By default, this is the same as {@link #newInitialFact()}.
+     * Analyses whose facts depend on the CFG, e.g., on the variables
+     * of the method, can override this method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -64,6 +74,18 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * @return the node transfer function of this analysis on given CFG,
+     * which is called by solvers in place of {@link #transferNode}.
+     * By default, this is just {@link #transferNode}. Analyses can
+     * override this method to prepare the transfer of every node
+     * of the CFG before solving, e.g., to decide the shapes of
+     * statements once instead of on every visit.
+     */
+    default TransferFunction<Node, Fact> getTransferFunction(CFG<Node> cfg) {
+        return this::transferNode;
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
@@ -23,23 +23,23 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConditionalConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
-import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.AssignStmt;
-import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.ir.stmt.SwitchStmt;
 
-import java.util.*;
+import java.util.Set;
+import java.util.function.BiPredicate;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
@@ -51,126 +51,74 @@ public class DeadCodeDetection extends MethodAnalysis {
 
     @Override
     public Set<Stmt> analyze(IR ir) {
+        if (getOptions().getBooleanOrDefault("sccp", false)) {
+            return analyzeWithCCP(ir);
+        }
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
-        // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
-                ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        // TODO - finish me
-        // Your task is to recognize dead code in ir and add it to deadCode
-
-        var nodeMap = new HashMap<Stmt, Boolean>();
-        for(Stmt s:cfg.getNodes())
-        {
-            if (cfg.isEntry(s) || cfg.isExit(s))
-                nodeMap.put(s, true);
-            else
-                nodeMap.put(s, false);
-        }
-        var queue = new LinkedList<Stmt>();
-        queue.add(cfg.getEntry());
-
-        while(!queue.isEmpty())
-        {
-
-            var stmt = queue.removeFirst();
-            if(stmt instanceof If)
-            {
-                var condition  = ((If) stmt).getCondition();
-                enqueue(cfg, stmt, queue, nodeMap, evaluateCondition(condition, constants.getInFact(stmt)));
-            }else if(stmt instanceof SwitchStmt){
-                var variable = ((SwitchStmt) stmt).getVar();
-                var fact = constants.getResult(stmt);
-                var value = fact.get(variable);
-                if(value.isConstant())
-                {
-                    int constant = value.getConstant();
-                    boolean flag = true;
-                    var caseTargets = ((SwitchStmt) stmt).getCaseTargets();
-                    for(var pair: caseTargets)
-                    {
-                        var caseStmt = pair.second();
-                        if(pair.first() == constant && !nodeMap.get(caseStmt))
-                        {
-                            flag = false;
-                            queue.add(caseStmt);
-                            nodeMap.replace(caseStmt, true);
-                        }
-                    }
-                    var defaultStmt = ((SwitchStmt) stmt).getDefaultTarget();
-                    if(flag && !nodeMap.get(defaultStmt)){
-                        queue.add(defaultStmt);
-                        nodeMap.replace(defaultStmt, true);
-                    }
-                }
-                else
-                    enqueue(cfg, stmt, queue, nodeMap, null);
-            }else{
-                enqueue(cfg, stmt, queue, nodeMap, null);
-            }
+        // obtain liveness of variables
+        BiPredicate<Var, Stmt> isLiveAfter = getLiveness(ir);
+        return DeadCodeEngine.detect(cfg, constants, isLiveAfter);
+    }
 
+    /**
+     * Detects dead code with the result of {@link ConditionalConstantPropagation},
+     * which has already decided the reachability of statements together
+     * with constants, thus no further traversal of the CFG is needed.
+     */
+    private Set<Stmt> analyzeWithCCP(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        CCPResult ccp = ir.getResult(ConditionalConstantPropagation.ID);
+        return DeadCodeEngine.detect(cfg, ccp::isReachable, getLiveness(ir));
+    }
 
-            if(stmt instanceof AssignStmt<?,?>)
-            {
-                var def = stmt.getDef();
-                if(def.isPresent() && def.get() instanceof Var variable)
-                {
-                    var fact = liveVars.getResult(stmt);
-                    if(!fact.contains(variable))
-                    {
-                        boolean flag = true;
-                        for(var v: stmt.getUses())
-                            if(!hasNoSideEffect(v))
-                            {
-                                flag = false;
-                                break;
-                            }
-                        if(flag)
-                            deadCode.add(stmt);
-                    }
-                }
-            }
-        }
-        for(var key: nodeMap.keySet())
-        {
-            if(!nodeMap.get(key))
-                deadCode.add(key);
+    /**
+     * Obtains liveness of variables according to option "liveness":
+     * "full" (default) for the result of {@link LiveVariableAnalysis},
+     * and "demand" for {@link DemandLiveVariables}, which only examines
+     * the variables assigned by the statements being checked.
+     *
+     * @return a predicate which tests whether a variable is live
+     * after a statement.
+     */
+    private BiPredicate<Var, Stmt> getLiveness(IR ir) {
+        String liveness = getOptions().getString("liveness");
+        if (liveness == null || liveness.equals("full")) {
+            DataflowResult<Stmt, SetFact<Var>> liveVars =
+                    ir.getResult(LiveVariableAnalysis.ID);
+            return (var, stmt) -> liveVars.getResult(stmt).contains(var);
+        } else if (liveness.equals("demand")) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return new DemandLiveVariables(cfg)::isLiveAfter;
+        } else {
+            throw new ConfigException("Unknown liveness of " + ID + ": " + liveness);
         }
-        return deadCode;
     }
 
-    private void enqueue(CFG<Stmt> cfg, Stmt s, LinkedList<Stmt> q, HashMap<Stmt, Boolean> map, Edge.Kind kind)
-    {
-        for(Edge<Stmt> edge: cfg.getOutEdgesOf(s))
-            if (edge.getKind() != kind) {
-                var target = edge.getTarget();
-                if(!map.get(target))
+    /**
+     * @return true if given statement assigns a variable which is not live
+     * after the statement, and the assignment has no side effect.
+     */
+    static boolean isDeadAssignment(
+            Stmt stmt, BiPredicate<Var, Stmt> isLiveAfter) {
+        if(stmt instanceof AssignStmt<?,?>)
+        {
+            var def = stmt.getDef();
+            if(def.isPresent() && def.get() instanceof Var variable)
+            {
+                if(!isLiveAfter.test(variable, stmt))
                 {
-                    q.add(target);
-                    map.replace(target, true);
+                    for(var v: stmt.getUses())
+                        if(!hasNoSideEffect(v))
+                            return false;
+                    return true;
                 }
             }
-    }
-
-
-    private Edge.Kind evaluateCondition(ConditionExp condition, CPFact fact){
-        var value = ConstantPropagation.evaluate(condition, fact);
-        if(!value.isConstant())
-            return null;
-        else
-        {
-            if(value.getConstant() == 1)
-                return Edge.Kind.IF_FALSE;
-            else if(value.getConstant() == 0)
-                return Edge.Kind.IF_TRUE;
-            else
-                return null;
         }
+        return false;
     }
 
     /**
@@ -0,0 +1,252 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Detects dead code of methods for {@link DeadCodeDetection} with
+ * per-thread scratch buffers, so that the analysis of every method
+ * only allocates its resulting set.
+ * <p>
+ * The statements of a method are identified by {@link Stmt#getIndex()},
+ * and the entry and exit of its CFG take the two indexes after them.
+ * Reachability is computed over a bit set with an int array as the queue,
+ * and the dead code is collected into a bit set, which backs the resulting
+ * set. The buffers of a thread are cleared before use and grow to the size
+ * of the largest method the thread has processed, thus the methods of
+ * a program can be processed by a pool of threads without per-method
+ * garbage besides the results.
+ */
+final class DeadCodeEngine {
+
+    private DeadCodeEngine() {
+    }
+
+    private static final ThreadLocal<Scratch> scratches =
+            ThreadLocal.withInitial(Scratch::new);
+
+    private static class Scratch {
+
+        private final BitSet reachable = new BitSet();
+
+        private final BitSet deadCode = new BitSet();
+
+        private int[] queue = new int[64];
+
+        private int[] getQueue(int capacity) {
+            if (queue.length < capacity) {
+                queue = new int[Math.max(capacity, queue.length * 2)];
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * Detects dead code, i.e., the statements which are unreachable when
+     * branches are decided by constants, and the dead assignments.
+     *
+     * @param constants   result of constant propagation
+     * @param isLiveAfter tests whether a variable is live after a statement
+     * @return the dead code sorted by indexes.
+     */
+    static Set<Stmt> detect(CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants,
+                            BiPredicate<Var, Stmt> isLiveAfter) {
+        IR ir = cfg.getIR();
+        int nStmts = ir.getStmts().size();
+        Scratch scratch = scratches.get();
+        BitSet reachable = scratch.reachable;
+        BitSet deadCode = scratch.deadCode;
+        reachable.clear();
+        deadCode.clear();
+        int[] queue = scratch.getQueue(nStmts + 2);
+        int head = 0, tail = 0;
+        reachable.set(cfg.getEntry().getIndex());
+        reachable.set(cfg.getExit().getIndex());
+        queue[tail++] = cfg.getEntry().getIndex();
+        while (head < tail) {
+            int index = queue[head++];
+            Stmt stmt = index < nStmts ? ir.getStmt(index) : cfg.getEntry();
+            if (stmt instanceof SwitchStmt switchStmt) {
+                Stmt target = getConstantTarget(switchStmt, constants.getInFact(stmt));
+                if (target != null) {
+                    if (!reachable.get(target.getIndex())) {
+                        reachable.set(target.getIndex());
+                        queue[tail++] = target.getIndex();
+                    }
+                    continue;
+                }
+            }
+            Edge.Kind infeasible = stmt instanceof If ifStmt ?
+                    getInfeasibleKind(ifStmt, constants.getInFact(stmt)) : null;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                int target = edge.getTarget().getIndex();
+                if (edge.getKind() != infeasible && !reachable.get(target)) {
+                    reachable.set(target);
+                    queue[tail++] = target;
+                }
+            }
+            if (index < nStmts &&
+                    DeadCodeDetection.isDeadAssignment(stmt, isLiveAfter)) {
+                deadCode.set(index);
+            }
+        }
+        for (int i = reachable.nextClearBit(0); i < nStmts;
+             i = reachable.nextClearBit(i + 1)) {
+            deadCode.set(i);
+        }
+        return new StmtSet(ir.getStmts(), (BitSet) deadCode.clone());
+    }
+
+    /**
+     * Detects dead code with given reachability of statements.
+     *
+     * @see #detect(CFG, DataflowResult, BiPredicate)
+     */
+    static Set<Stmt> detect(CFG<Stmt> cfg, Predicate<Stmt> isReachable,
+                            BiPredicate<Var, Stmt> isLiveAfter) {
+        List<Stmt> stmts = cfg.getIR().getStmts();
+        BitSet deadCode = scratches.get().deadCode;
+        deadCode.clear();
+        for (int i = 0; i < stmts.size(); ++i) {
+            Stmt stmt = stmts.get(i);
+            if (!isReachable.test(stmt) ||
+                    DeadCodeDetection.isDeadAssignment(stmt, isLiveAfter)) {
+                deadCode.set(i);
+            }
+        }
+        return new StmtSet(stmts, (BitSet) deadCode.clone());
+    }
+
+    /**
+     * @return the kind of the out edges of given if statement which are
+     * infeasible as its condition is constant, or null if the condition
+     * is not constant.
+     */
+    private static Edge.Kind getInfeasibleKind(If ifStmt, CPFact fact) {
+        Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), fact);
+        if (cond.isConstant()) {
+            if (cond.getConstant() == 1) {
+                return Edge.Kind.IF_FALSE;
+            } else if (cond.getConstant() == 0) {
+                return Edge.Kind.IF_TRUE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the only feasible target of given switch statement as its
+     * variable is constant, or null if the variable is not constant.
+     */
+    private static Stmt getConstantTarget(SwitchStmt switchStmt, CPFact fact) {
+        Value value = fact.get(switchStmt.getVar());
+        if (!value.isConstant()) {
+            return null;
+        }
+        List<Integer> caseValues = switchStmt.getCaseValues();
+        for (int i = 0; i < caseValues.size(); ++i) {
+            if (caseValues.get(i) == value.getConstant()) {
+                return switchStmt.getTarget(i);
+            }
+        }
+        return switchStmt.getDefaultTarget();
+    }
+
+    /**
+     * Immutable set of statements backed by a bit set over their indexes,
+     * which iterates the statements in the order of their indexes.
+     */
+    private static class StmtSet extends AbstractSet<Stmt> {
+
+        private final List<Stmt> stmts;
+
+        private final BitSet bits;
+
+        private final int size;
+
+        private StmtSet(List<Stmt> stmts, BitSet bits) {
+            this.stmts = stmts;
+            this.bits = bits;
+            this.size = bits.cardinality();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Stmt stmt) {
+                int index = stmt.getIndex();
+                return index >= 0 && index < stmts.size()
+                        && stmts.get(index) == stmt && bits.get(index);
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<Stmt> iterator() {
+            return new Iterator<>() {
+
+                private int next = bits.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Stmt next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Stmt stmt = stmts.get(next);
+                    next = bits.nextSetBit(next + 1);
+                    return stmt;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.SetFact;
+
+/**
+ * Extension of {@link DataflowAnalysis} for set-based analyses whose
+ * facts can be propagated as differences, i.e., the elements newly added
+ * to the facts, instead of the whole facts (see option
+ * {@code propagation: delta} of {@link pascal.taie.analysis.dataflow.solver.Solver#makeSolver}).
+ * <p>
+ * The analysis must meet facts by union and start from empty initial
+ * facts, and its transfer function must distribute over union, i.e.,
+ * transferring IN + DELTA gives the result of transferring IN plus
+ * the result of transferring DELTA. For example, liveness, reaching
+ * definitions and other gen/kill analyses with union meet.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <E>    type of elements of data-flow facts
+ */
+public interface DeltaDataflowAnalysis<Node, E>
+        extends DataflowAnalysis<Node, SetFact<E>> {
+
+    /**
+     * Transfers the elements newly added to the in (out) fact of given
+     * node to its out (in) fact for forward (backward) analysis.
+     * Every node has been transferred by {@link #transferNode} once
+     * before its first delta transfer.
+     *
+     * @param delta  the elements newly added to the in (out) fact, which
+     *               are not empty and should not be modified
+     * @param target the out (in) fact, to which the results are added
+     * @return the elements newly added to target by this transfer.
+     */
+    SetFact<E> transferDelta(Node node, SetFact<E> delta, SetFact<E> target);
+}
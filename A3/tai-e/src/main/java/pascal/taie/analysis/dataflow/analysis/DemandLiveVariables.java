@@ -0,0 +1,239 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Answers whether a variable is live after a statement on demand, without
+ * computing the live variables at every statement as
+ * {@link LiveVariableAnalysis} does. The answers are the same as the
+ * results of {@link LiveVariableAnalysis}.
+ * <p>
+ * The statements are numbered in the order of the {@link BlockCFG basic
+ * blocks} and their positions in the blocks, and the occurrences (uses or
+ * definitions) of each variable are recorded in this order, so that
+ * the next occurrence of a variable in the same block is found by binary
+ * search. Beyond the block, a variable is live if it is live at the entry
+ * of a successor block. The blocks where a variable is live at entry are
+ * computed when the variable is queried first, by searching backward from
+ * the blocks which use the variable before defining it, and stopping at
+ * the blocks which define the variable; the result is memoized for
+ * subsequent queries on the variable.
+ * <p>
+ * Thus, building this object takes time and space linear in the size
+ * of the method, and each variable costs one backward search over
+ * the blocks.
+ */
+public class DemandLiveVariables {
+
+    private final BlockCFG blockCFG;
+
+    /**
+     * Number of the first statement of each block.
+     */
+    private final int[] blockStarts;
+
+    /**
+     * Numbers of the statements where each variable occurs, in ascending
+     * order, indexed by {@link Var#getIndex()}.
+     */
+    private final int[][] occurrences;
+
+    /**
+     * Whether each occurrence in {@link #occurrences} is a use (as opposed to
+     * a definition). An occurrence is a use if the statement both uses and
+     * defines the variable, as the use comes first.
+     */
+    private final BitSet[] isUse;
+
+    /**
+     * Blocks where each variable is live at entry, computed on demand.
+     */
+    private final BitSet[] liveIn;
+
+    public DemandLiveVariables(CFG<Stmt> cfg) {
+        this(new BlockCFG(cfg));
+    }
+
+    public DemandLiveVariables(BlockCFG blockCFG) {
+        this.blockCFG = blockCFG;
+        int nBlocks = blockCFG.getNumberOfNodes();
+        int nVars = blockCFG.getIR().getVars().size();
+        blockStarts = new int[nBlocks];
+        int[] counts = new int[nVars];
+        int n = 0;
+        for (int b = 0; b < nBlocks; ++b) {
+            blockStarts[b] = n;
+            for (Stmt stmt : blockCFG.getBlock(b).getStmts()) {
+                forEachOccurrence(stmt, (var, use) -> ++counts[var.getIndex()]);
+                ++n;
+            }
+        }
+        occurrences = new int[nVars][];
+        isUse = new BitSet[nVars];
+        for (int v = 0; v < nVars; ++v) {
+            occurrences[v] = new int[counts[v]];
+            isUse[v] = new BitSet(counts[v]);
+        }
+        Arrays.fill(counts, 0);
+        for (int b = 0; b < nBlocks; ++b) {
+            List<Stmt> stmts = blockCFG.getBlock(b).getStmts();
+            for (int i = 0; i < stmts.size(); ++i) {
+                int number = blockStarts[b] + i;
+                forEachOccurrence(stmts.get(i), (var, use) -> {
+                    int v = var.getIndex();
+                    if (use) {
+                        isUse[v].set(counts[v]);
+                    }
+                    occurrences[v][counts[v]++] = number;
+                });
+            }
+        }
+        liveIn = new BitSet[nVars];
+    }
+
+    /**
+     * @return true if given variable is live after given statement.
+     */
+    public boolean isLiveAfter(Var var, Stmt stmt) {
+        BasicBlock block = blockCFG.getBlockOf(stmt);
+        int v = var.getIndex();
+        int[] occ = occurrences[v];
+        int number = blockStarts[block.getIndex()] + blockCFG.getPositionOf(stmt);
+        int end = blockStarts[block.getIndex()] + block.getStmts().size();
+        // find the first occurrence after stmt
+        int i = Arrays.binarySearch(occ, number + 1);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        if (i < occ.length && occ[i] < end) {
+            return isUse[v].get(i);
+        }
+        BitSet live = getLiveIn(v);
+        for (BasicBlock succ : blockCFG.getSuccsOf(block)) {
+            if (live.get(succ.getIndex())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the blocks where the variable of given index is live at entry.
+     */
+    private BitSet getLiveIn(int v) {
+        BitSet live = liveIn[v];
+        if (live != null) {
+            return live;
+        }
+        int[] occ = occurrences[v];
+        live = new BitSet(blockStarts.length);
+        BitSet defines = new BitSet(blockStarts.length);
+        Deque<BasicBlock> workList = new ArrayDeque<>();
+        int prev = -1;
+        int b = 0;
+        for (int i = 0; i < occ.length; ++i) {
+            b = blockIndexOf(occ[i], b);
+            boolean first = b != prev;
+            prev = b;
+            if (first && isUse[v].get(i)) {
+                // upward-exposed use
+                live.set(b);
+                workList.add(blockCFG.getBlock(b));
+            } else if (!isUse[v].get(i)) {
+                defines.set(b);
+            }
+        }
+        while (!workList.isEmpty()) {
+            BasicBlock block = workList.poll();
+            for (BasicBlock pred : blockCFG.getPredsOf(block)) {
+                int p = pred.getIndex();
+                if (!live.get(p) && !defines.get(p)) {
+                    live.set(p);
+                    workList.add(pred);
+                }
+            }
+        }
+        liveIn[v] = live;
+        return live;
+    }
+
+    /**
+     * @return index of the block containing the statement of given number,
+     * searching from the block of given index, as statement numbers
+     * are queried in ascending order.
+     */
+    private int blockIndexOf(int number, int from) {
+        int b = from;
+        while (b + 1 < blockStarts.length && blockStarts[b + 1] <= number) {
+            ++b;
+        }
+        return b;
+    }
+
+    private interface OccurrenceConsumer {
+        void accept(Var var, boolean use);
+    }
+
+    /**
+     * Passes each variable used or defined by given statement to given
+     * consumer once, the same as how {@link LiveVariableAnalysis}
+     * treats uses and definitions.
+     */
+    private static void forEachOccurrence(Stmt stmt, OccurrenceConsumer consumer) {
+        Var defVar = null;
+        Optional<LValue> def = stmt.getDef();
+        if (def.isPresent() && def.get() instanceof Var var) {
+            defVar = var;
+        }
+        boolean defUsed = false;
+        Var last = null;
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var useVar && useVar != last) {
+                if (useVar == defVar) {
+                    defUsed = true;
+                }
+                consumer.accept(useVar, true);
+                last = useVar;
+            }
+        }
+        if (defVar != null && !defUsed) {
+            consumer.accept(defVar, false);
+        }
+    }
+}
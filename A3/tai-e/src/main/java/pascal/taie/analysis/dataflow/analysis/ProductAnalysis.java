@@ -0,0 +1,279 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.MethodAnalysisDriver;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Product of several data-flow analyses in the same direction, which
+ * solves all of them in a single traversal of the CFG.
+ * <p>
+ * The facts of the product are {@link ProductFact}s, whose i-th component
+ * is the fact of the i-th analysis, and the meet and transfer functions
+ * apply those of the analyses component-wise. As the analyses do not
+ * exchange information, the fixed point of the product consists of
+ * the fixed points of the analyses, thus {@link #analyze(IR)} splits
+ * the result of the product into the results of the analyses, which are
+ * the same as solving the analyses separately.
+ * <p>
+ * This saves the work-list passes and CFG traversals of all but one
+ * analysis, while the facts of each analysis are still allocated by
+ * the analysis itself.
+ * <p>
+ * The analyses are given by IDs in option "analyses", and are created
+ * in the same way as by {@link MethodAnalysisDriver}, i.e., options of
+ * each analysis can be overridden by the map keyed by its ID in the
+ * options of the product.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductAnalysis<Node> extends MethodAnalysis
+        implements DataflowAnalysis<Node, ProductFact> {
+
+    public static final String ID = "product";
+
+    private final List<String> ids;
+
+    private final List<DataflowAnalysis<Node, Object>> analyses;
+
+    private final boolean isForward;
+
+    private final Solver<Node, ProductFact> solver;
+
+    public ProductAnalysis(AnalysisConfig config) {
+        this(config, makeAnalyses(config.getOptions()));
+    }
+
+    /**
+     * @param analyses the analyses to be solved together, keyed by the IDs
+     *                 under which their results are stored in the IR
+     * @throws ConfigException if the analyses are empty or
+     *                         not in the same direction
+     */
+    @SuppressWarnings("unchecked")
+    private ProductAnalysis(AnalysisConfig config,
+                            Map<String, ? extends DataflowAnalysis<Node, ?>> analyses) {
+        super(config);
+        if (analyses.isEmpty()) {
+            throw new ConfigException("No analyses to combine in " + ID);
+        }
+        this.ids = new ArrayList<>(analyses.size());
+        this.analyses = new ArrayList<>(analyses.size());
+        analyses.forEach((id, analysis) -> {
+            this.ids.add(id);
+            this.analyses.add((DataflowAnalysis<Node, Object>) analysis);
+        });
+        isForward = this.analyses.get(0).isForward();
+        for (DataflowAnalysis<Node, Object> analysis : this.analyses) {
+            if (analysis.isForward() != isForward) {
+                throw new ConfigException(
+                        "Cannot combine forward and backward analyses: " + ids);
+            }
+        }
+        solver = Solver.makeSolver(this, getOptions());
+    }
+
+    /**
+     * Creates the product of given analyses, whose results are stored
+     * under their IDs.
+     */
+    @SafeVarargs
+    public static <Node> ProductAnalysis<Node> of(
+            AbstractDataflowAnalysis<Node, ?>... analyses) {
+        Map<String, AbstractDataflowAnalysis<Node, ?>> map = new LinkedHashMap<>();
+        for (AbstractDataflowAnalysis<Node, ?> analysis : analyses) {
+            map.put(analysis.getId(), analysis);
+        }
+        return new ProductAnalysis<>(new AnalysisConfig(ID,
+                "analyses", List.copyOf(map.keySet())), map);
+    }
+
+    /**
+     * Creates the data-flow analyses specified by option "analyses".
+     */
+    private static <Node> Map<String, DataflowAnalysis<Node, ?>> makeAnalyses(
+            AnalysisOptions options) {
+        @SuppressWarnings("unchecked")
+        List<String> ids = (List<String>) options.get("analyses");
+        Map<String, DataflowAnalysis<Node, ?>> analyses = new LinkedHashMap<>();
+        if (ids != null) {
+            for (String id : ids) {
+                MethodAnalysis analysis = MethodAnalysisDriver.makeAnalysis(id, options);
+                if (!(analysis instanceof DataflowAnalysis<?, ?> dataflowAnalysis)) {
+                    throw new ConfigException(id + " is not a data-flow analysis");
+                }
+                @SuppressWarnings("unchecked")
+                DataflowAnalysis<Node, ?> nodeAnalysis =
+                        (DataflowAnalysis<Node, ?>) dataflowAnalysis;
+                analyses.put(id, nodeAnalysis);
+            }
+        }
+        return analyses;
+    }
+
+    /**
+     * Solves the analyses on the CFG of given IR, and stores the result
+     * of each analysis in the IR under its ID.
+     *
+     * @return the result of the product, whose metrics are those of
+     * solving all the analyses together.
+     */
+    @Override
+    public DataflowResult<Node, ProductFact> analyze(IR ir) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Node, ProductFact> product = solver.solve(cfg);
+        for (int i = 0; i < analyses.size(); ++i) {
+            ir.storeResult(ids.get(i), split(cfg, product, i));
+        }
+        return product;
+    }
+
+    /**
+     * @return the result of the i-th analysis, which shares the facts
+     * with given result of the product. The result has no metrics, as
+     * the analyses are not solved separately.
+     */
+    private static <Node> DataflowResult<Node, Object> split(
+            CFG<Node> cfg, DataflowResult<Node, ProductFact> product, int i) {
+        DataflowResult<Node, Object> result = cfg.getEntry() instanceof Stmt ?
+                new ArrayDataflowResult<>(cfg) : new DataflowResult<>();
+        for (Node node : cfg) {
+            result.setInFact(node, product.getInFact(node).get(i));
+            result.setOutFact(node, product.getOutFact(node).get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return a product fact whose i-th component is created from
+     * the i-th analysis by given function.
+     */
+    private ProductFact newFact(Function<DataflowAnalysis<Node, Object>, Object> factory) {
+        Object[] facts = new Object[analyses.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = factory.apply(analyses.get(i));
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        return newFact(analysis -> analysis.newBoundaryFact(cfg));
+    }
+
+    /**
+     * Like {@link #newInitialFact(CFG)}, the components are created by
+     * the same method of the analyses, thus each analysis decides
+     * its initial fact in absence of a CFG by itself.
+     */
+    @Override
+    public ProductFact newInitialFact() {
+        return newFact(DataflowAnalysis::newInitialFact);
+    }
+
+    @Override
+    public ProductFact newInitialFact(CFG<Node> cfg) {
+        return newFact(analysis -> analysis.newInitialFact(cfg));
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < analyses.size(); ++i) {
+            analyses.get(i).meetInto(fact.get(i), target.get(i));
+        }
+    }
+
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < analyses.size(); ++i) {
+            changed |= analyses.get(i).transferNode(node, in.get(i), out.get(i));
+        }
+        return changed;
+    }
+
+    /**
+     * @return the transfer function which applies the transfer functions
+     * of the analyses on given CFG component-wise.
+     */
+    @Override
+    public TransferFunction<Node, ProductFact> getTransferFunction(CFG<Node> cfg) {
+        List<TransferFunction<Node, Object>> transfers = new ArrayList<>(analyses.size());
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            transfers.add(analysis.getTransferFunction(cfg));
+        }
+        return (node, in, out) -> {
+            boolean changed = false;
+            for (int i = 0; i < transfers.size(); ++i) {
+                changed |= transfers.get(i).transferNode(node, in.get(i), out.get(i));
+            }
+            return changed;
+        };
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            if (analysis.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        Object[] facts = new Object[analyses.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            DataflowAnalysis<Node, Object> analysis = analyses.get(i);
+            facts[i] = analysis.needTransferEdge(edge) ?
+                    analysis.transferEdge(edge, nodeFact.get(i)) : nodeFact.get(i);
+        }
+        return new ProductFact(facts);
+    }
+}
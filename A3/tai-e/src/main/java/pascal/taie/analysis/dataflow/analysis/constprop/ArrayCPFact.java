@@ -0,0 +1,468 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link CPFact} which stores lattice values in primitive arrays indexed
+ * by {@link Var#getIndex()}, i.e., a kind byte and an int constant for
+ * each variable. Thus, all variables in such a fact must belong to
+ * the same method.
+ * <p>
+ * Besides the {@link CPFact} API, this class provides methods which
+ * access lattice values packed in longs (see {@link #getPacked(Var)}),
+ * and meet or copy whole facts array by array, none of which allocates
+ * objects. In contrast, {@link #get(Var)} may allocate a {@link Value}
+ * for constants outside the range cached by {@link Value}.
+ */
+public class ArrayCPFact extends CPFact {
+
+    private static final byte KIND_UNDEF = 0;
+
+    private static final byte KIND_CONSTANT = 1;
+
+    private static final byte KIND_NAC = 2;
+
+    /**
+     * Packed UNDEF.
+     */
+    public static final long UNDEF = pack(KIND_UNDEF, 0);
+
+    /**
+     * Packed NAC.
+     */
+    public static final long NAC = pack(KIND_NAC, 0);
+
+    /**
+     * The same map as {@link #map}.
+     */
+    private final Values values;
+
+    public ArrayCPFact() {
+        this(new Values());
+    }
+
+    private ArrayCPFact(Values values) {
+        super(values, false);
+        this.values = values;
+    }
+
+    // ---------- packed lattice values ----------
+
+    private static long pack(byte kind, int constant) {
+        return ((long) kind << Integer.SIZE) | (constant & 0xFFFFFFFFL);
+    }
+
+    private static byte kindOf(long value) {
+        return (byte) (value >>> Integer.SIZE);
+    }
+
+    /**
+     * @return the packed constant for given value.
+     */
+    public static long makeConstant(int constant) {
+        return pack(KIND_CONSTANT, constant);
+    }
+
+    public static boolean isUndef(long value) {
+        return kindOf(value) == KIND_UNDEF;
+    }
+
+    public static boolean isConstant(long value) {
+        return kindOf(value) == KIND_CONSTANT;
+    }
+
+    public static boolean isNAC(long value) {
+        return kindOf(value) == KIND_NAC;
+    }
+
+    /**
+     * @return the integer of given packed constant. The client code should
+     * call {@link #isConstant(long)} before calling this method.
+     */
+    public static int getConstant(long value) {
+        return (int) value;
+    }
+
+    /**
+     * @return the packed form of given value.
+     */
+    public static long pack(Value value) {
+        if (value.isConstant()) {
+            return makeConstant(value.getConstant());
+        }
+        return value.isNAC() ? NAC : UNDEF;
+    }
+
+    /**
+     * @return the {@link Value} of given packed value.
+     */
+    public static Value unpack(long value) {
+        return switch (kindOf(value)) {
+            case KIND_CONSTANT -> Value.makeConstant(getConstant(value));
+            case KIND_NAC -> Value.getNAC();
+            default -> Value.getUndef();
+        };
+    }
+
+    // ---------- allocation-free operations ----------
+
+    /**
+     * @return the packed value of given variable in this fact.
+     */
+    public long getPacked(Var var) {
+        int i = var.getIndex();
+        if (i >= values.vars.length || values.vars[i] != var) {
+            return UNDEF;
+        }
+        return pack(values.kinds[i], values.constants[i]);
+    }
+
+    /**
+     * Updates the value of given variable in this fact.
+     *
+     * @return if the update changes this fact.
+     */
+    public boolean updatePacked(Var var, long value) {
+        int i = var.getIndex();
+        if (isUndef(value)) {
+            // absent variables are already UNDEF
+            return i < values.vars.length && values.vars[i] == var &&
+                    values.set(i, KIND_UNDEF, 0);
+        }
+        values.ensureCapacity(i + 1);
+        values.bind(i, var);
+        return values.set(i, kindOf(value), getConstant(value));
+    }
+
+    /**
+     * Meets given fact into this fact, i.e., variable by variable
+     * like {@link ConstantPropagation#meetValue(Value, Value)}.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(ArrayCPFact fact) {
+        Values from = fact.values;
+        values.ensureCapacity(from.vars.length);
+        boolean changed = false;
+        for (int i = 0; i < from.vars.length; ++i) {
+            byte kind = from.kinds[i];
+            if (kind == KIND_UNDEF || values.kinds[i] == KIND_NAC) {
+                continue;
+            }
+            values.bind(i, from.vars[i]);
+            if (kind == KIND_NAC) {
+                changed |= values.set(i, KIND_NAC, 0);
+            } else if (values.kinds[i] == KIND_UNDEF) {
+                changed |= values.set(i, KIND_CONSTANT, from.constants[i]);
+            } else if (values.constants[i] != from.constants[i]) {
+                changed |= values.set(i, KIND_NAC, 0);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Copies the content from given fact to this fact like
+     * {@link #copyFrom(MapFact)}, except the value of given variable.
+     *
+     * @param excluded the variable whose value is not copied,
+     *                 or null to copy all values.
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFromExcept(ArrayCPFact fact, Var excluded) {
+        Values from = fact.values;
+        values.ensureCapacity(from.vars.length);
+        int excludedIndex = excluded != null &&
+                excluded.getIndex() < from.vars.length &&
+                from.vars[excluded.getIndex()] == excluded ?
+                excluded.getIndex() : -1;
+        boolean changed = false;
+        for (int i = 0; i < from.vars.length; ++i) {
+            byte kind = from.kinds[i];
+            if (kind != KIND_UNDEF && i != excludedIndex) {
+                values.bind(i, from.vars[i]);
+                changed |= values.set(i, kind, from.constants[i]);
+            }
+        }
+        return changed;
+    }
+
+    // ---------- CPFact API ----------
+
+    @Override
+    public boolean copyFromExcept(CPFact fact, Var excluded) {
+        if (fact instanceof ArrayCPFact that) {
+            return copyFromExcept(that, excluded);
+        }
+        return super.copyFromExcept(fact, excluded);
+    }
+
+    @Override
+    public Value get(Var key) {
+        return unpack(getPacked(key));
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        return updatePacked(key, pack(value));
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof ArrayCPFact that) {
+            return copyFromExcept(that, null);
+        }
+        return super.copyFrom(fact);
+    }
+
+    @Override
+    public ArrayCPFact copy() {
+        return new ArrayCPFact(new Values(values));
+    }
+
+    /**
+     * Map view of the arrays, which is the backing map of {@link MapFact}.
+     */
+    private static class Values extends AbstractMap<Var, Value> {
+
+        private static final Var[] EMPTY_VARS = new Var[0];
+
+        private static final byte[] EMPTY_KINDS = new byte[0];
+
+        private static final int[] EMPTY_CONSTANTS = new int[0];
+
+        /**
+         * The variable at each index. A non-null element may still
+         * be UNDEF, which is decided by {@link #kinds}.
+         */
+        private Var[] vars;
+
+        private byte[] kinds;
+
+        private int[] constants;
+
+        /**
+         * Number of variables whose values are not UNDEF.
+         */
+        private int size;
+
+        private Values() {
+            vars = EMPTY_VARS;
+            kinds = EMPTY_KINDS;
+            constants = EMPTY_CONSTANTS;
+        }
+
+        private Values(Values values) {
+            vars = values.vars.clone();
+            kinds = values.kinds.clone();
+            constants = values.constants.clone();
+            size = values.size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > vars.length) {
+                int newLength = Math.max(capacity, vars.length * 2);
+                vars = Arrays.copyOf(vars, newLength);
+                kinds = Arrays.copyOf(kinds, newLength);
+                constants = Arrays.copyOf(constants, newLength);
+            }
+        }
+
+        /**
+         * Associates given index with given variable.
+         *
+         * @throws IllegalArgumentException if the index is associated
+         *                                  with another variable, which
+         *                                  belongs to a different method.
+         */
+        private void bind(int i, Var var) {
+            Var old = vars[i];
+            if (old == null) {
+                vars[i] = var;
+            } else if (old != var) {
+                throw new IllegalArgumentException("Cannot hold " + var +
+                        " in the fact of " + old.getMethod() + ", as variables" +
+                        " of an ArrayCPFact must belong to the same method");
+            }
+        }
+
+        /**
+         * Sets the value at given index.
+         *
+         * @return true if the value changes.
+         */
+        private boolean set(int i, byte kind, int constant) {
+            byte oldKind = kinds[i];
+            if (kind == KIND_CONSTANT) {
+                if (oldKind == KIND_CONSTANT && constants[i] == constant) {
+                    return false;
+                }
+                constants[i] = constant;
+            } else {
+                if (oldKind == kind) {
+                    return false;
+                }
+                constants[i] = 0;
+            }
+            kinds[i] = kind;
+            if (oldKind == KIND_UNDEF) {
+                ++size;
+            } else if (kind == KIND_UNDEF) {
+                --size;
+            }
+            return true;
+        }
+
+        private int indexOf(Object key) {
+            if (key instanceof Var var) {
+                int i = var.getIndex();
+                if (i < vars.length && vars[i] == var && kinds[i] != KIND_UNDEF) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Value valueAt(int i) {
+            return unpack(pack(kinds[i], constants[i]));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Value get(Object key) {
+            int i = indexOf(key);
+            return i >= 0 ? valueAt(i) : null;
+        }
+
+        @Override
+        public Value put(Var key, Value value) {
+            Value old = get(key);
+            ensureCapacity(key.getIndex() + 1);
+            bind(key.getIndex(), key);
+            long packed = ArrayCPFact.pack(value);
+            set(key.getIndex(), kindOf(packed), getConstant(packed));
+            return old;
+        }
+
+        @Override
+        public Value remove(Object key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return null;
+            }
+            Value old = valueAt(i);
+            set(i, KIND_UNDEF, 0);
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(kinds, KIND_UNDEF);
+            Arrays.fill(constants, 0);
+            size = 0;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super Var, ? super Value> action) {
+            for (int i = 0; i < vars.length; ++i) {
+                if (kinds[i] != KIND_UNDEF) {
+                    action.accept(vars[i], valueAt(i));
+                }
+            }
+        }
+
+        @Override
+        public Set<Entry<Var, Value>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Var, Value>> iterator() {
+                    return new Iterator<>() {
+
+                        private int next = nextIndex(0);
+
+                        private int last = -1;
+
+                        private int nextIndex(int from) {
+                            for (int i = from; i < vars.length; ++i) {
+                                if (kinds[i] != KIND_UNDEF) {
+                                    return i;
+                                }
+                            }
+                            return -1;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<Var, Value> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next;
+                            next = nextIndex(next + 1);
+                            return new SimpleImmutableEntry<>(vars[last], valueAt(last));
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last < 0) {
+                                throw new IllegalStateException();
+                            }
+                            set(last, KIND_UNDEF, 0);
+                            last = -1;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
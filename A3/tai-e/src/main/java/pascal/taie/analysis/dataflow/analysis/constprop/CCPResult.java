@@ -0,0 +1,65 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.BitSet;
+
+/**
+ * Result of {@link ConditionalConstantPropagation}, which consists of
+ * the constant propagation facts and the reachability of statements.
+ * <p>
+ * Facts are only kept for reachable statements, and the in/out facts
+ * of unreachable statements are {@code null}.
+ */
+public class CCPResult extends ArrayDataflowResult<Stmt, CPFact> {
+
+    private final BitSet reachable = new BitSet();
+
+    CCPResult(CFG<Stmt> cfg) {
+        super(cfg);
+    }
+
+    /**
+     * @return true if given statement is reachable via the control-flow
+     * edges which are proven executable, otherwise false.
+     */
+    public boolean isReachable(Stmt stmt) {
+        return reachable.get(stmt.getIndex());
+    }
+
+    /**
+     * Marks given statement as reachable.
+     *
+     * @return true if the statement was unreachable before the call.
+     */
+    boolean setReachable(Stmt stmt) {
+        if (reachable.get(stmt.getIndex())) {
+            return false;
+        }
+        reachable.set(stmt.getIndex());
+        return true;
+    }
+}
@@ -48,6 +48,15 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a new CPFact with the mappings of given map.
+     *
+     * @see MapFact#MapFact(Map, boolean)
+     */
+    protected CPFact(Map<Var, Value> map, boolean copy) {
+        super(map, copy);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,8 +78,38 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    /**
+     * Copies the content from given fact to this fact like
+     * {@link #copyFrom(MapFact)}, except the value of given variable.
+     *
+     * @param excluded the variable whose value is not copied,
+     *                 or null to copy all values.
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFromExcept(CPFact fact, Var excluded) {
+        boolean changed = false;
+        for (Map.Entry<Var, Value> entry : fact.map.entrySet()) {
+            if (entry.getKey() != excluded) {
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        }
+        return changed;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
     }
+
+    /**
+     * Checks whether this fact is known to have the same content as
+     * given fact without comparing their mappings, e.g., when they share
+     * the same storage. This check is cheap, but a false result
+     * does not imply that the two facts are different.
+     *
+     * @return true if this fact has the same content as given fact.
+     */
+    public boolean isSameAs(CPFact other) {
+        return this == other;
+    }
 }
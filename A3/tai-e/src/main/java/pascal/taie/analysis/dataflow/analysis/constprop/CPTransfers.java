@@ -0,0 +1,290 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+/**
+ * Transfer functions of {@link ConstantPropagation} compiled from
+ * the statements of a method.
+ * <p>
+ * Each statement is compiled once into a kind of transfer specialized for
+ * its shape, i.e., "x = 1", "x = y", "x = y op z", "x = (anything else)"
+ * which always gives NAC, and identity for the statements which do not
+ * define int-holding variables, together with its operands and operator.
+ * The kinds, operands and operators are kept in arrays indexed by
+ * {@link Stmt#getIndex()}, and the transfer of a statement switches on
+ * its kind and operator, thus every visit of a statement neither examines
+ * the types of the statement and its expressions again, nor dispatches
+ * on a per-statement transfer object. The transfers give the same results
+ * as {@link ConstantPropagation#transferNode(Stmt, CPFact, CPFact)}.
+ * <p>
+ * The transfers are compiled for each solving of a method
+ * (see {@link ConstantPropagation#getTransferFunction}).
+ */
+final class CPTransfers {
+
+    /**
+     * Kinds of transfers.
+     */
+    private static final byte IDENTITY = 0, CONSTANT = 1, COPY = 2, BINARY = 3, NAC = 4;
+
+    /**
+     * Operators of "x = y op z".
+     */
+    private static final byte OP_ADD = 0, OP_SUB = 1, OP_MUL = 2, OP_DIV = 3,
+            OP_REM = 4, OP_OR = 5, OP_AND = 6, OP_XOR = 7, OP_EQ = 8, OP_NE = 9,
+            OP_LT = 10, OP_LE = 11, OP_GT = 12, OP_GE = 13, OP_SHL = 14,
+            OP_SHR = 15, OP_USHR = 16;
+
+    private final byte[] kinds;
+
+    /**
+     * The variables defined by the statements.
+     */
+    private final Var[] lhs;
+
+    /**
+     * The right-hand side variables of "x = y", and the first operands
+     * of "x = y op z".
+     */
+    private final Var[] operands1;
+
+    /**
+     * The second operands of "x = y op z".
+     */
+    private final Var[] operands2;
+
+    private final byte[] operators;
+
+    /**
+     * The values of "x = c".
+     */
+    private final Value[] constants;
+
+    /**
+     * The packed values of "x = c".
+     */
+    private final long[] packedConstants;
+
+    CPTransfers(IR ir) {
+        int size = ir.getStmts().size();
+        kinds = new byte[size];
+        lhs = new Var[size];
+        operands1 = new Var[size];
+        operands2 = new Var[size];
+        operators = new byte[size];
+        constants = new Value[size];
+        packedConstants = new long[size];
+        for (Stmt stmt : ir) {
+            compile(stmt);
+        }
+    }
+
+    private void compile(Stmt stmt) {
+        int i = stmt.getIndex();
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var &&
+                ConstantPropagation.canHoldInt(var) &&
+                def.getRValue() != null) {
+            lhs[i] = var;
+            RValue rhs = def.getRValue();
+            if (rhs instanceof IntLiteral literal) {
+                kinds[i] = CONSTANT;
+                constants[i] = Value.makeConstant(literal.getValue());
+                packedConstants[i] = ArrayCPFact.makeConstant(literal.getValue());
+            } else if (rhs instanceof Var rhsVar) {
+                kinds[i] = COPY;
+                operands1[i] = rhsVar;
+            } else if (rhs instanceof BinaryExp binary) {
+                kinds[i] = BINARY;
+                operands1[i] = binary.getOperand1();
+                operands2[i] = binary.getOperand2();
+                operators[i] = operatorOf(binary);
+            } else {
+                kinds[i] = NAC;
+            }
+        } else {
+            kinds[i] = IDENTITY;
+        }
+    }
+
+    /**
+     * Transfers a statement on facts in any representation.
+     */
+    boolean transfer(Stmt stmt, CPFact in, CPFact out) {
+        int i = stmt.getIndex();
+        // entry and exit nodes of CFG are not in the statements of IR
+        byte kind = i < kinds.length ? kinds[i] : IDENTITY;
+        if (kind == IDENTITY) {
+            return out.copyFrom(in);
+        }
+        Var x = lhs[i];
+        Value value = switch (kind) {
+            case CONSTANT -> constants[i];
+            case COPY -> in.get(operands1[i]);
+            case BINARY -> evaluate(operators[i],
+                    in.get(operands1[i]), in.get(operands2[i]));
+            default -> Value.getNAC();
+        };
+        if (value.equals(in.get(x))) {
+            // in fact is already the result, thus is copied as a whole
+            return out.copyFrom(in);
+        }
+        boolean changed = out.copyFromExcept(in, x);
+        if (!value.isUndef()) {
+            changed |= out.update(x, value);
+        }
+        return changed;
+    }
+
+    /**
+     * Transfers a statement on {@link ArrayCPFact}s.
+     */
+    boolean transferPacked(Stmt stmt, CPFact in, CPFact out) {
+        ArrayCPFact arrayIn = (ArrayCPFact) in;
+        ArrayCPFact arrayOut = (ArrayCPFact) out;
+        int i = stmt.getIndex();
+        byte kind = i < kinds.length ? kinds[i] : IDENTITY;
+        if (kind == IDENTITY) {
+            return arrayOut.copyFromExcept(arrayIn, null);
+        }
+        Var x = lhs[i];
+        long value = switch (kind) {
+            case CONSTANT -> packedConstants[i];
+            case COPY -> arrayIn.getPacked(operands1[i]);
+            case BINARY -> evaluatePacked(operators[i],
+                    arrayIn.getPacked(operands1[i]), arrayIn.getPacked(operands2[i]));
+            default -> ArrayCPFact.NAC;
+        };
+        boolean changed = arrayOut.copyFromExcept(arrayIn, x);
+        if (!ArrayCPFact.isUndef(value)) {
+            changed |= arrayOut.updatePacked(x, value);
+        }
+        return changed;
+    }
+
+    private static Value evaluate(byte operator, Value value1, Value value2) {
+        if ((operator == OP_DIV || operator == OP_REM) &&
+                value2.isConstant() && value2.getConstant() == 0) {
+            return Value.getUndef();
+        }
+        if (value1.isNAC() || value2.isNAC()) {
+            return Value.getNAC();
+        } else if (value1.isConstant() && value2.isConstant()) {
+            return Value.makeConstant(apply(operator,
+                    value1.getConstant(), value2.getConstant()));
+        } else {
+            return Value.getUndef();
+        }
+    }
+
+    private static long evaluatePacked(byte operator, long value1, long value2) {
+        if ((operator == OP_DIV || operator == OP_REM) &&
+                ArrayCPFact.isConstant(value2) &&
+                ArrayCPFact.getConstant(value2) == 0) {
+            return ArrayCPFact.UNDEF;
+        }
+        if (ArrayCPFact.isNAC(value1) || ArrayCPFact.isNAC(value2)) {
+            return ArrayCPFact.NAC;
+        } else if (ArrayCPFact.isConstant(value1) &&
+                ArrayCPFact.isConstant(value2)) {
+            return ArrayCPFact.makeConstant(apply(operator,
+                    ArrayCPFact.getConstant(value1),
+                    ArrayCPFact.getConstant(value2)));
+        } else {
+            return ArrayCPFact.UNDEF;
+        }
+    }
+
+    /**
+     * @return the result of applying given operator to two constants.
+     */
+    private static int apply(byte operator, int c1, int c2) {
+        return switch (operator) {
+            case OP_ADD -> c1 + c2;
+            case OP_SUB -> c1 - c2;
+            case OP_MUL -> c1 * c2;
+            case OP_DIV -> c1 / c2;
+            case OP_REM -> c1 % c2;
+            case OP_OR -> c1 | c2;
+            case OP_AND -> c1 & c2;
+            case OP_XOR -> c1 ^ c2;
+            case OP_EQ -> c1 == c2 ? 1 : 0;
+            case OP_NE -> c1 != c2 ? 1 : 0;
+            case OP_LT -> c1 < c2 ? 1 : 0;
+            case OP_LE -> c1 <= c2 ? 1 : 0;
+            case OP_GT -> c1 > c2 ? 1 : 0;
+            case OP_GE -> c1 >= c2 ? 1 : 0;
+            case OP_SHL -> c1 << c2;
+            case OP_SHR -> c1 >> c2;
+            case OP_USHR -> c1 >>> c2;
+            default -> throw new AnalysisException("Unexpected operator: " + operator);
+        };
+    }
+
+    private static byte operatorOf(BinaryExp exp) {
+        if (exp instanceof ArithmeticExp arithmetic) {
+            return switch (arithmetic.getOperator()) {
+                case ADD -> OP_ADD;
+                case SUB -> OP_SUB;
+                case MUL -> OP_MUL;
+                case DIV -> OP_DIV;
+                case REM -> OP_REM;
+            };
+        } else if (exp instanceof BitwiseExp bitwise) {
+            return switch (bitwise.getOperator()) {
+                case OR -> OP_OR;
+                case AND -> OP_AND;
+                case XOR -> OP_XOR;
+            };
+        } else if (exp instanceof ConditionExp condition) {
+            return switch (condition.getOperator()) {
+                case EQ -> OP_EQ;
+                case NE -> OP_NE;
+                case LT -> OP_LT;
+                case LE -> OP_LE;
+                case GT -> OP_GT;
+                case GE -> OP_GE;
+            };
+        } else if (exp instanceof ShiftExp shift) {
+            return switch (shift.getOperator()) {
+                case SHL -> OP_SHL;
+                case SHR -> OP_SHR;
+                case USHR -> OP_USHR;
+            };
+        }
+        throw new AnalysisException("Unexpected binary expression: " + exp);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.TransferFunction;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Conditional constant propagation, which decides constants and
+ * reachability of statements together.
+ * <p>
+ * Unlike {@link ConstantPropagation}, which propagates facts along all
+ * control-flow edges, this analysis only follows the edges which are
+ * proven executable: the out edges of an if (switch) statement whose
+ * condition (variable) is a constant are limited to the taken branch
+ * (case). Thus, facts from unreachable code never pollute the facts of
+ * reachable code, and unreachable statements are never visited.
+ * The lattice, meet and transfer function are the same as
+ * {@link ConstantPropagation}.
+ * <p>
+ * As the IR is not in SSA form, the facts are propagated along the
+ * executable CFG edges rather than along def-use edges.
+ */
+public class ConditionalConstantPropagation extends MethodAnalysis {
+
+    public static final String ID = "cond-constprop";
+
+    private final ConstantPropagation cp;
+
+    public ConditionalConstantPropagation(AnalysisConfig config) {
+        super(config);
+        // facts are created by cp, thus option "fact" is passed to it
+        String fact = getOptions().getString("fact");
+        cp = new ConstantPropagation(fact == null ?
+                new AnalysisConfig(ConstantPropagation.ID) :
+                new AnalysisConfig(ConstantPropagation.ID, "fact", fact));
+    }
+
+    @Override
+    public CCPResult analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        CCPResult result = new CCPResult(cfg);
+        Set<Edge<Stmt>> executable = Sets.newSet();
+        Queue<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet();
+        Stmt entry = cfg.getEntry();
+        CPFact boundary = cp.newBoundaryFact(cfg);
+        TransferFunction<Stmt, CPFact> transfer = cp.getTransferFunction(cfg);
+        reach(entry, result);
+        workList.add(entry);
+        inWorkList.set(entry.getIndex());
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            inWorkList.clear(node.getIndex());
+            CPFact in = result.getInFact(node);
+            if (node == entry) {
+                cp.meetInto(boundary, in);
+            }
+            for (Edge<Stmt> inEdge : cfg.getInEdgesOf(node)) {
+                if (executable.contains(inEdge)) {
+                    cp.meetInto(result.getOutFact(inEdge.getSource()), in);
+                }
+            }
+            boolean changed = transfer.transferNode(node, in, result.getOutFact(node));
+            for (Edge<Stmt> outEdge : cfg.getOutEdgesOf(node)) {
+                if (isFeasible(node, outEdge, in) &&
+                        (executable.add(outEdge) || changed)) {
+                    Stmt target = outEdge.getTarget();
+                    reach(target, result);
+                    if (!inWorkList.get(target.getIndex())) {
+                        workList.add(target);
+                        inWorkList.set(target.getIndex());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks given node reachable and creates its facts,
+     * if it has not been reached before.
+     */
+    private void reach(Stmt node, CCPResult result) {
+        if (result.setReachable(node)) {
+            result.setInFact(node, cp.newInitialFact());
+            result.setOutFact(node, cp.newInitialFact());
+        }
+    }
+
+    /**
+     * @return false if given edge is proven never taken under given
+     * IN fact of its source node, otherwise true.
+     */
+    private static boolean isFeasible(Stmt node, Edge<Stmt> edge, CPFact in) {
+        if (node instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), in);
+            if (cond.isConstant()) {
+                return switch (edge.getKind()) {
+                    case IF_TRUE -> cond.getConstant() != 0;
+                    case IF_FALSE -> cond.getConstant() != 1;
+                    default -> true;
+                };
+            }
+        } else if (node instanceof SwitchStmt switchStmt) {
+            Value value = in.get(switchStmt.getVar());
+            if (value.isConstant()) {
+                int constant = value.getConstant();
+                return switch (edge.getKind()) {
+                    case SWITCH_CASE -> edge.getCaseValue() == constant;
+                    case SWITCH_DEFAULT ->
+                            !switchStmt.getCaseValues().contains(constant);
+                    default -> true;
+                };
+            }
+        }
+        return true;
+    }
+}
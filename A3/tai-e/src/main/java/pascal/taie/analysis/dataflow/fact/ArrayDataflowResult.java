@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * A {@link DataflowResult} for CFGs whose nodes are {@link Stmt}s.
+ * The facts are kept in arrays indexed by {@link Stmt#getIndex()},
+ * so that querying and updating them need no hashing.
+ * <p>
+ * The facts are looked up by index, and the statement at the index is
+ * compared with the queried one, thus querying a statement that is not
+ * in the CFG of this result, e.g., a statement which took the index of
+ * another one after statements of the method were inserted or removed,
+ * returns null as {@link DataflowResult} does.
+ * <p>
+ * The entry and exit of a CFG are fresh nodes every time the CFG is
+ * built, thus this result also records them, so that the facts of
+ * the entry and exit of a rebuilt CFG can be looked up by their roles
+ * (see {@link #getEntry()} and {@link #getExit()}).
+ *
+ * @param <Node> type of nodes, which must be {@link Stmt}
+ * @param <Fact> type of data-flow facts
+ */
+public class ArrayDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * The statements of the CFG, indexed by {@link Stmt#getIndex()}.
+     */
+    private final Object[] nodes;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    private final Node entry;
+
+    private final Node exit;
+
+    /**
+     * Creates a data-flow result which can hold the facts
+     * of all nodes of given CFG.
+     */
+    public ArrayDataflowResult(CFG<Node> cfg) {
+        int maxIndex = -1;
+        for (Node node : cfg) {
+            maxIndex = Math.max(maxIndex, ((Stmt) node).getIndex());
+        }
+        nodes = new Object[maxIndex + 1];
+        for (Node node : cfg) {
+            nodes[((Stmt) node).getIndex()] = node;
+        }
+        inFacts = new Object[maxIndex + 1];
+        outFacts = new Object[maxIndex + 1];
+        entry = cfg.getEntry();
+        exit = cfg.getExit();
+    }
+
+    /**
+     * @return the entry of the CFG of this result.
+     */
+    public Node getEntry() {
+        return entry;
+    }
+
+    /**
+     * @return the exit of the CFG of this result.
+     */
+    public Node getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean hasFactsOf(Node node) {
+        int index = ((Stmt) node).getIndex();
+        return index >= 0 && index < nodes.length && nodes[index] == node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        return hasFactsOf(node) ?
+                (Fact) inFacts[((Stmt) node).getIndex()] : null;
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        checkNotFrozen();
+        inFacts[((Stmt) node).getIndex()] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        return hasFactsOf(node) ?
+                (Fact) outFacts[((Stmt) node).getIndex()] : null;
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        checkNotFrozen();
+        outFacts[((Stmt) node).getIndex()] = fact;
+    }
+}
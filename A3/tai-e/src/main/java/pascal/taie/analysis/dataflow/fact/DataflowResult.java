@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -33,22 +35,38 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    /**
+     * The maps of facts are created on first use, as subclasses which keep
+     * facts in other structures (e.g., {@link ArrayDataflowResult}) never
+     * use them.
+     */
+    private Map<Node, Fact> inFacts;
+
+    private Map<Node, Fact> outFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private SolverMetrics metrics;
+
+    /**
+     * Whether the facts of this result can no longer be replaced.
+     */
+    private boolean frozen;
 
     /**
      * @return the flowing-in fact of given node.
      */
     @Override
     public Fact getInFact(Node node) {
-        return inFacts.get(node);
+        return inFacts != null ? inFacts.get(node) : null;
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
+        checkNotFrozen();
+        if (inFacts == null) {
+            inFacts = new LinkedHashMap<>();
+        }
         inFacts.put(node, fact);
     }
 
@@ -57,13 +75,64 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      */
     @Override
     public Fact getOutFact(Node node) {
-        return outFacts.get(node);
+        return outFacts != null ? outFacts.get(node) : null;
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
     public void setOutFact(Node node, Fact fact) {
+        checkNotFrozen();
+        if (outFacts == null) {
+            outFacts = new LinkedHashMap<>();
+        }
         outFacts.put(node, fact);
     }
+
+    /**
+     * @return true if this result holds facts of given node, i.e.,
+     * the node belongs to the CFG on which this result was computed.
+     */
+    public boolean hasFactsOf(Node node) {
+        return (inFacts != null && inFacts.containsKey(node)) ||
+                (outFacts != null && outFacts.containsKey(node));
+    }
+
+    /**
+     * Freezes this result, so that its facts can no longer be replaced
+     * by {@link #setInFact} and {@link #setOutFact}. This is called when
+     * the facts of this result are interned (see {@link FactInterner}).
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * @return true if this result is frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if this result is frozen.
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException(
+                    "Facts of a frozen data-flow result cannot be replaced");
+        }
+    }
+
+    /**
+     * @return the metrics of the solving which computed this result,
+     * or null if this result was not computed by a solver.
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
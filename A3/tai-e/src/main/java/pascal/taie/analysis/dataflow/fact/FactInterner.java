@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Interns (hash-conses) data-flow facts, i.e., maps equal facts to
+ * a single canonical instance, so that the facts of a result which have
+ * the same contents share one object.
+ * <p>
+ * Facts are interned after the solving, when they no longer change.
+ * Canonical facts may be shared by many nodes, thus they must not be
+ * modified afterwards: the facts themselves stay mutable, but a result
+ * whose facts are interned is frozen (see {@link DataflowResult#freeze()}),
+ * and clients which need to modify a fact of such a result must modify
+ * its copy. In addition, with assertions enabled, this interner checks
+ * that the canonical facts are not modified while it interns facts. Within the facts interned by the same interner,
+ * two facts are equal if and only if they are the same object, thus
+ * clients can compare them by identity. This class is not thread-safe.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class FactInterner<Fact> {
+
+    private final Map<Fact, Fact> canonicalFacts = new HashMap<>();
+
+    /**
+     * Hash codes of the canonical facts when they were interned,
+     * which are only recorded with assertions enabled.
+     */
+    private final Map<Fact, Integer> hashCodes = new IdentityHashMap<>();
+
+    /**
+     * Number of facts (including duplicates) interned by this interner.
+     */
+    private long internedFacts;
+
+    /**
+     * @return the canonical fact which is equal to given fact.
+     */
+    public Fact intern(Fact fact) {
+        ++internedFacts;
+        Fact canonical = canonicalFacts.putIfAbsent(fact, fact);
+        if (canonical == null) {
+            assert recordHashCode(fact);
+            return fact;
+        }
+        assert hashCodes.get(canonical) == canonical.hashCode() :
+                "Canonical fact was modified after interning: " + canonical;
+        return canonical;
+    }
+
+    private boolean recordHashCode(Fact fact) {
+        hashCodes.put(fact, fact.hashCode());
+        return true;
+    }
+
+    /**
+     * Replaces the in and out facts of given nodes in given result by
+     * their canonical facts, and then freezes the result.
+     */
+    public <Node> void intern(DataflowResult<Node, Fact> result,
+                              Iterable<Node> nodes) {
+        for (Node node : nodes) {
+            Fact in = result.getInFact(node);
+            if (in != null) {
+                result.setInFact(node, intern(in));
+            }
+            Fact out = result.getOutFact(node);
+            if (out != null) {
+                result.setOutFact(node, intern(out));
+            }
+        }
+        result.freeze();
+    }
+
+    /**
+     * @return the number of facts (including duplicates) interned
+     * by this interner.
+     */
+    public long getInternedFacts() {
+        return internedFacts;
+    }
+
+    /**
+     * @return the number of distinct canonical facts.
+     */
+    public int getUniqueFacts() {
+        return canonicalFacts.size();
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.TransferFunction;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data-flow result which only holds the facts at the boundaries of basic
+ * blocks, i.e., the IN fact and the OUT fact of each block.
+ * <p>
+ * The facts of the statements inside a block are recomputed from the facts
+ * at the boundaries of the block when they are queried. The facts of the
+ * most recently queried blocks are kept in an LRU cache of given capacity,
+ * so that querying the statements of a block one by one, or the statements
+ * of a few blocks alternately, recomputes each block only once. As the
+ * IN fact (OUT fact for backward analyses) of a statement inside a block
+ * equals the OUT fact (IN fact) of its previous (next) statement, they are
+ * the same object.
+ * <p>
+ * After the solving, the facts at the exits of blocks (entries for backward
+ * analyses) are also released by {@link #releaseBlockResultFacts()}, as
+ * they can be recomputed from the facts at the entries of blocks, which
+ * are the merge points of the CFG. Thus, only one fact per block is kept.
+ * <p>
+ * The facts written by {@link #setInFact} and {@link #setOutFact} are
+ * pinned, i.e., they are kept in the maps of {@link DataflowResult} apart
+ * from the block facts and the cache,
+ * and returned for their statements instead of the recomputed facts.
+ * A pinned fact does not flow to the other statements of its block.
+ * This class is not thread-safe.
+ */
+class BlockDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final TransferFunction<Node, Fact> transfer;
+
+    private final CFG<Node> cfg;
+
+    private final BlockCFG blockCFG;
+
+    private final Object[] blockInFacts;
+
+    private final Object[] blockOutFacts;
+
+    /**
+     * Facts of the statements of the recently queried blocks,
+     * in access order.
+     */
+    private final Map<BasicBlock, StmtFacts> cache;
+
+    BlockDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                        CFG<Node> cfg, BlockCFG blockCFG, int cacheCapacity) {
+        this.analysis = analysis;
+        this.transfer = analysis.getTransferFunction(cfg);
+        this.cfg = cfg;
+        this.blockCFG = blockCFG;
+        this.blockInFacts = new Object[blockCFG.getNumberOfNodes()];
+        this.blockOutFacts = new Object[blockCFG.getNumberOfNodes()];
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BasicBlock, StmtFacts> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    BlockCFG getBlockCFG() {
+        return blockCFG;
+    }
+
+    @SuppressWarnings("unchecked")
+    Fact getBlockInFact(BasicBlock block) {
+        return (Fact) blockInFacts[block.getIndex()];
+    }
+
+    void setBlockInFact(BasicBlock block, Fact fact) {
+        blockInFacts[block.getIndex()] = fact;
+        cache.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    Fact getBlockOutFact(BasicBlock block) {
+        return (Fact) blockOutFacts[block.getIndex()];
+    }
+
+    void setBlockOutFact(BasicBlock block, Fact fact) {
+        blockOutFacts[block.getIndex()] = fact;
+        cache.clear();
+    }
+
+    /**
+     * Applies the transfer functions of the statements in given block
+     * one by one, from the IN fact to the OUT fact of the block (reversely
+     * for backward analyses), and stores the facts of the statements into
+     * given arrays if they are not null.
+     *
+     * @return true if the OUT fact (IN fact for backward analyses)
+     * of the block changed, otherwise false.
+     */
+    boolean transferBlock(BasicBlock block) {
+        cache.clear();
+        return transferBlock(block, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean transferBlock(BasicBlock block, Object[] inFacts, Object[] outFacts) {
+        List<Stmt> stmts = block.getStmts();
+        int last = stmts.size() - 1;
+        if (analysis.isForward()) {
+            Fact in = getBlockInFact(block);
+            for (int i = 0; i < last; ++i) {
+                Fact out = analysis.newInitialFact(cfg);
+                transfer.transferNode((Node) stmts.get(i), in, out);
+                if (inFacts != null) {
+                    inFacts[i] = in;
+                    outFacts[i] = out;
+                }
+                in = out;
+            }
+            Fact out = getBlockOutFact(block);
+            if (out == null) {
+                out = analysis.newInitialFact(cfg);
+            }
+            if (inFacts != null) {
+                inFacts[last] = in;
+                outFacts[last] = out;
+            }
+            return transfer.transferNode((Node) stmts.get(last), in, out);
+        } else {
+            Fact out = getBlockOutFact(block);
+            for (int i = last; i > 0; --i) {
+                Fact in = analysis.newInitialFact(cfg);
+                transfer.transferNode((Node) stmts.get(i), in, out);
+                if (inFacts != null) {
+                    inFacts[i] = in;
+                    outFacts[i] = out;
+                }
+                out = in;
+            }
+            Fact in = getBlockInFact(block);
+            if (in == null) {
+                in = analysis.newInitialFact(cfg);
+            }
+            if (inFacts != null) {
+                inFacts[0] = in;
+                outFacts[0] = out;
+            }
+            return transfer.transferNode((Node) stmts.get(0), in, out);
+        }
+    }
+
+    /**
+     * Releases the OUT facts (IN facts for backward analyses) of blocks,
+     * which are the results of transferring the blocks, and are recomputed
+     * when the facts of the statements in the blocks are queried.
+     * This is called when the solving finishes.
+     */
+    void releaseBlockResultFacts() {
+        Arrays.fill(analysis.isForward() ? blockOutFacts : blockInFacts, null);
+        cache.clear();
+    }
+
+    /**
+     * @return the facts of the statements in given block,
+     * which are recomputed unless they are cached.
+     */
+    private StmtFacts materialize(BasicBlock block) {
+        StmtFacts facts = cache.get(block);
+        if (facts == null) {
+            int size = block.getStmts().size();
+            facts = new StmtFacts(new Object[size], new Object[size]);
+            transferBlock(block, facts.inFacts, facts.outFacts);
+            cache.put(block, facts);
+        }
+        return facts;
+    }
+
+    @Override
+    public boolean hasFactsOf(Node node) {
+        return cfg.hasNode(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Fact getInFact(Node node) {
+        if (!cfg.hasNode(node)) {
+            return null;
+        }
+        Fact pinned = super.getInFact(node);
+        if (pinned != null) {
+            return pinned;
+        }
+        Stmt stmt = (Stmt) node;
+        return (Fact) materialize(blockCFG.getBlockOf(stmt))
+                .inFacts[blockCFG.getPositionOf(stmt)];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Fact getOutFact(Node node) {
+        if (!cfg.hasNode(node)) {
+            return null;
+        }
+        Fact pinned = super.getOutFact(node);
+        if (pinned != null) {
+            return pinned;
+        }
+        Stmt stmt = (Stmt) node;
+        return (Fact) materialize(blockCFG.getBlockOf(stmt))
+                .outFacts[blockCFG.getPositionOf(stmt)];
+    }
+
+    /**
+     * Facts of the statements in a block, indexed by their positions.
+     */
+    private static class StmtFacts {
+
+        private final Object[] inFacts;
+
+        private final Object[] outFacts;
+
+        private StmtFacts(Object[] inFacts, Object[] outFacts) {
+            this.inFacts = inFacts;
+            this.outFacts = outFacts;
+        }
+    }
+}
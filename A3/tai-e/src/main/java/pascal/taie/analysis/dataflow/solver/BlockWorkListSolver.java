@@ -0,0 +1,192 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work-list solver which works on the {@link BlockCFG basic blocks} of
+ * a CFG of statements, and processes blocks in FIFO order. Visiting
+ * a block applies the transfer functions of its statements one by one,
+ * and only the facts at the boundaries of blocks are stored during
+ * the solving, and only the facts at the entries (exits for backward
+ * analyses) of blocks are kept after the solving;
+ * see {@link BlockDataflowResult}.
+ */
+class BlockWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    /**
+     * Number of blocks whose statement facts are cached by the results.
+     */
+    private final int cacheCapacity;
+
+    BlockWorkListSolver(DataflowAnalysis<Node, Fact> analysis, int cacheCapacity) {
+        super(analysis);
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    @Override
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (!(cfg.getEntry() instanceof Stmt)) {
+            throw new AnalysisException(
+                    "Block-level solving requires CFG of statements");
+        }
+        @SuppressWarnings("unchecked")
+        CFG<Stmt> stmtCFG = (CFG<Stmt>) cfg;
+        return new BlockDataflowResult<>(analysis, cfg,
+                new BlockCFG(stmtCFG), cacheCapacity);
+    }
+
+    /**
+     * Block-level results only store the facts at the boundaries of blocks,
+     * which cannot be reused for the blocks of the changed CFG, thus this
+     * method solves the whole CFG again.
+     */
+    @Override
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg,
+                                            DataflowResult<Node, Fact> previous,
+                                            Set<Node> changed) {
+        return solve(cfg);
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG blockCFG = blockResult.getBlockCFG();
+        for (BasicBlock block : blockCFG) {
+            if (blockCFG.isEntry(block)) {
+                blockResult.setBlockInFact(block, analysis.newBoundaryFact(cfg));
+                blockResult.setBlockOutFact(block, analysis.newBoundaryFact(cfg));
+            } else {
+                blockResult.setBlockInFact(block, analysis.newInitialFact(cfg));
+                blockResult.setBlockOutFact(block, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG blockCFG = blockResult.getBlockCFG();
+        for (BasicBlock block : blockCFG) {
+            if (blockCFG.isExit(block)) {
+                blockResult.setBlockInFact(block, analysis.newBoundaryFact(cfg));
+                blockResult.setBlockOutFact(block, analysis.newBoundaryFact(cfg));
+            } else {
+                blockResult.setBlockInFact(block, analysis.newInitialFact(cfg));
+                blockResult.setBlockOutFact(block, analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG blockCFG = blockResult.getBlockCFG();
+        WorkList workList = new WorkList(blockCFG);
+        SolverMetrics metrics = result.getMetrics();
+        while (!workList.isEmpty()) {
+            BasicBlock block = workList.remove();
+            metrics.countPop();
+            Fact in = blockResult.getBlockInFact(block);
+            for (BasicBlock pred : blockCFG.getPredsOf(block)) {
+                analysis.meetInto(blockResult.getBlockOutFact(pred), in);
+                metrics.countMeet();
+            }
+            boolean changed = blockResult.transferBlock(block);
+            metrics.countTransfer(changed, blockResult.getBlockOutFact(block));
+            if (changed) {
+                workList.addAll(blockCFG.getSuccsOf(block));
+            }
+        }
+        blockResult.releaseBlockResultFacts();
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> blockResult = (BlockDataflowResult<Node, Fact>) result;
+        BlockCFG blockCFG = blockResult.getBlockCFG();
+        WorkList workList = new WorkList(blockCFG);
+        SolverMetrics metrics = result.getMetrics();
+        while (!workList.isEmpty()) {
+            BasicBlock block = workList.remove();
+            metrics.countPop();
+            Fact out = blockResult.getBlockOutFact(block);
+            for (BasicBlock succ : blockCFG.getSuccsOf(block)) {
+                analysis.meetInto(blockResult.getBlockInFact(succ), out);
+                metrics.countMeet();
+            }
+            boolean changed = blockResult.transferBlock(block);
+            metrics.countTransfer(changed, blockResult.getBlockInFact(block));
+            if (changed) {
+                workList.addAll(blockCFG.getPredsOf(block));
+            }
+        }
+        blockResult.releaseBlockResultFacts();
+    }
+
+    /**
+     * FIFO work-list of blocks, which contains each block at most once.
+     */
+    private static class WorkList {
+
+        private final Queue<BasicBlock> queue = new ArrayDeque<>();
+
+        private final BitSet inQueue = new BitSet();
+
+        private WorkList(BlockCFG blockCFG) {
+            addAll(blockCFG.getNodes());
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private BasicBlock remove() {
+            BasicBlock block = queue.remove();
+            inQueue.clear(block.getIndex());
+            return block;
+        }
+
+        private void addAll(Set<BasicBlock> blocks) {
+            for (BasicBlock block : blocks) {
+                if (!inQueue.get(block.getIndex())) {
+                    inQueue.set(block.getIndex());
+                    queue.add(block);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DeltaDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.TransferFunction;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work-list solver which propagates the differences of facts, i.e.,
+ * the elements newly added to the facts, along the edges of CFG instead
+ * of meeting the whole facts of all predecessors (successors) on every
+ * visit of a node (see {@link DeltaDataflowAnalysis}).
+ * <p>
+ * The solver first transfers every node once with the whole facts,
+ * and sends the resulting out (in) facts to its successors (predecessors)
+ * as their pending deltas. Afterwards, a node is visited only when
+ * its pending delta is not empty: the elements of the delta which are
+ * not yet in the in (out) fact of the node are added to the fact and
+ * transferred by {@link DeltaDataflowAnalysis#transferDelta}, and
+ * the newly added elements of the out (in) fact are sent to its
+ * successors (predecessors). The pending deltas which target the same
+ * node are merged, and the nodes are visited in FIFO order.
+ * <p>
+ * The result is the same as the one given by {@link WorkListSolver}.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <E>    type of elements of data-flow facts
+ */
+class DeltaWorkListSolver<Node, E> extends Solver<Node, SetFact<E>> {
+
+    private final DeltaDataflowAnalysis<Node, E> deltaAnalysis;
+
+    DeltaWorkListSolver(DeltaDataflowAnalysis<Node, E> analysis) {
+        super(analysis);
+        this.deltaAnalysis = analysis;
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result) {
+        solveForward(cfg, result, cfg, Set.of());
+    }
+
+    /**
+     * Re-solves given nodes. Their predecessors which are not re-solved
+     * send no deltas, thus the out facts of such predecessors are merged
+     * into the in facts of given nodes before their first transfers.
+     */
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result,
+                                  List<Node> initialNodes) {
+        solveForward(cfg, result, initialNodes, stableNodes(cfg, initialNodes));
+    }
+
+    /**
+     * @param stable the nodes whose facts are stable and not re-solved
+     */
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result,
+                              Iterable<Node> initialNodes, Set<Node> stable) {
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, SetFact<E>> transfer = analysis.getTransferFunction(cfg);
+        Map<Node, SetFact<E>> deltas = new HashMap<>();
+        Queue<Node> workList = new ArrayDeque<>();
+        for (Node node : initialNodes) {
+            metrics.countPop();
+            SetFact<E> in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                if (stable.contains(pred)) {
+                    analysis.meetInto(result.getOutFact(pred), in);
+                    metrics.countMeet();
+                }
+            }
+            SetFact<E> out = result.getOutFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, out);
+            if (!out.isEmpty()) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    send(out, succ, deltas, workList, metrics);
+                }
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            metrics.countPop();
+            SetFact<E> in = result.getInFact(node);
+            SetFact<E> delta = deltas.remove(node);
+            delta.removeIf(in::contains);
+            if (delta.isEmpty()) {
+                continue;
+            }
+            in.union(delta);
+            SetFact<E> out = result.getOutFact(node);
+            SetFact<E> added = deltaAnalysis.transferDelta(node, delta, out);
+            metrics.countTransfer(!added.isEmpty(), out);
+            if (!added.isEmpty()) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    send(added, succ, deltas, workList, metrics);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result) {
+        solveBackward(cfg, result, cfg, Set.of());
+    }
+
+    /**
+     * Backward counterpart of {@link #doSolveForward(CFG, DataflowResult, List)}.
+     */
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result,
+                                   List<Node> initialNodes) {
+        solveBackward(cfg, result, initialNodes, stableNodes(cfg, initialNodes));
+    }
+
+    /**
+     * @param stable the nodes whose facts are stable and not re-solved
+     */
+    private void solveBackward(CFG<Node> cfg, DataflowResult<Node, SetFact<E>> result,
+                               Iterable<Node> initialNodes, Set<Node> stable) {
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, SetFact<E>> transfer = analysis.getTransferFunction(cfg);
+        Map<Node, SetFact<E>> deltas = new HashMap<>();
+        Queue<Node> workList = new ArrayDeque<>();
+        for (Node node : initialNodes) {
+            metrics.countPop();
+            SetFact<E> out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                if (stable.contains(succ)) {
+                    analysis.meetInto(result.getInFact(succ), out);
+                    metrics.countMeet();
+                }
+            }
+            SetFact<E> in = result.getInFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, in);
+            if (!in.isEmpty()) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    send(in, pred, deltas, workList, metrics);
+                }
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            metrics.countPop();
+            SetFact<E> out = result.getOutFact(node);
+            SetFact<E> delta = deltas.remove(node);
+            delta.removeIf(out::contains);
+            if (delta.isEmpty()) {
+                continue;
+            }
+            out.union(delta);
+            SetFact<E> in = result.getInFact(node);
+            SetFact<E> added = deltaAnalysis.transferDelta(node, delta, in);
+            metrics.countTransfer(!added.isEmpty(), in);
+            if (!added.isEmpty()) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    send(added, pred, deltas, workList, metrics);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the nodes of given CFG which are not in given nodes.
+     */
+    private static <Node> Set<Node> stableNodes(CFG<Node> cfg, List<Node> initialNodes) {
+        Set<Node> stable = new HashSet<>(cfg.getNodes());
+        initialNodes.forEach(stable::remove);
+        return stable;
+    }
+
+    /**
+     * Merges given delta into the pending delta of given node,
+     * and adds the node to the work-list if it has no pending delta.
+     */
+    private static <Node, E> void send(SetFact<E> delta, Node node,
+                                       Map<Node, SetFact<E>> deltas,
+                                       Queue<Node> workList,
+                                       SolverMetrics metrics) {
+        SetFact<E> pending = deltas.get(node);
+        if (pending == null) {
+            deltas.put(node, delta.copy());
+            workList.add(node);
+        } else {
+            pending.union(delta);
+        }
+        metrics.countMeet();
+    }
+}
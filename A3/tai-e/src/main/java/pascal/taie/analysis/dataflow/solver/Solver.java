@@ -23,8 +23,21 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeltaDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.ArrayDataflowResult;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -35,8 +48,19 @@ import pascal.taie.analysis.graph.cfg.CFG;
  */
 public abstract class Solver<Node, Fact> {
 
+    /**
+     * Default number of blocks whose statement facts are cached
+     * by block-level results.
+     */
+    private static final int DEFAULT_BLOCK_CACHE = 16;
+
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Whether the facts of results are interned after the solving.
+     */
+    private boolean intern;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
     }
@@ -49,25 +73,269 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis,
+     * according to the work-list strategy specified in the options:
+     * <ul>
+     *     <li>{@code worklist: fifo} (default): visits nodes in FIFO order.</li>
+     *     <li>{@code worklist: priority}: visits nodes in reverse postorder
+     *     (postorder for backward analyses). The CFG nodes must be
+     *     {@link pascal.taie.util.Indexable}. If {@code worklist-stats: true}
+     *     is also given, the solver reports the node visits it saves
+     *     compared with FIFO order.</li>
+     *     <li>{@code worklist: wto}: visits nodes in a weak topological
+     *     ordering of the CFG, and stabilizes inner loops before outer ones
+     *     (see {@link WTOSolver}).</li>
+     * </ul>
+     * If {@code granularity: block} is given, the solver works on the basic
+     * blocks of CFGs of statements instead, and only stores facts at
+     * the boundaries of blocks (see {@link BlockWorkListSolver});
+     * it always visits blocks in FIFO order. The facts of statements are
+     * recomputed on demand, and option {@code block-cache} (default
+     * {@value #DEFAULT_BLOCK_CACHE}) gives the number of recently
+     * queried blocks whose statement facts are cached, which must be
+     * positive.
+     * <p>
+     * If {@code propagation: delta} is given, the solver only propagates
+     * the elements newly added to facts along the edges (see
+     * {@link DeltaWorkListSolver}). The analysis must be a
+     * {@link DeltaDataflowAnalysis}, and the option cannot be combined
+     * with other work-list strategies or block granularity.
+     * <p>
+     * If {@code intern: true} is given, equal facts of the result are
+     * replaced by a shared canonical fact after the solving (see
+     * {@link FactInterner}), and the {@link SolverMetrics} of the result
+     * report the deduplication ratio. It cannot be combined with block
+     * granularity, as block-level solvers keep no facts of statements.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        Solver<Node, Fact> solver = newSolver(analysis, options);
+        solver.intern = options.getBooleanOrDefault("intern", false);
+        if (solver.intern && solver instanceof BlockWorkListSolver) {
+            throw new ConfigException("Block-level solving does not " +
+                    "support interning of facts");
+        }
+        return solver;
+    }
+
+    private static <Node, Fact> Solver<Node, Fact> newSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        String worklist = options.getString("worklist");
+        String granularity = options.getString("granularity");
+        String propagation = options.getString("propagation");
+        if ("delta".equals(propagation)) {
+            if (!(analysis instanceof DeltaDataflowAnalysis<?, ?>)) {
+                throw new ConfigException("Delta propagation is not " +
+                        "supported by " + analysis.getClass().getName());
+            }
+            if ((worklist != null && !worklist.equals("fifo")) ||
+                    (granularity != null && !granularity.equals("stmt"))) {
+                throw new ConfigException("Delta propagation does not " +
+                        "support work-list strategy " + worklist +
+                        " or granularity " + granularity);
+            }
+            return makeDeltaSolver((DeltaDataflowAnalysis<?, ?>) analysis);
+        } else if (propagation != null && !propagation.equals("full")) {
+            throw new ConfigException("Unknown propagation mode: " + propagation);
+        }
+        if ("block".equals(granularity)) {
+            if (worklist != null && !worklist.equals("fifo")) {
+                throw new ConfigException("Block-level solving does not " +
+                        "support work-list strategy: " + worklist);
+            }
+            int blockCache = options.get("block-cache") != null ?
+                    options.getInt("block-cache") : DEFAULT_BLOCK_CACHE;
+            if (blockCache <= 0) {
+                throw new ConfigException("Number of cached blocks " +
+                        "must be positive: " + blockCache);
+            }
+            return new BlockWorkListSolver<>(analysis, blockCache);
+        } else if (granularity != null && !granularity.equals("stmt")) {
+            throw new ConfigException("Unknown solver granularity: " + granularity);
+        }
+        if (worklist == null || worklist.equals("fifo")) {
+            return makeSolver(analysis);
+        } else if (worklist.equals("priority")) {
+            return new PriorityWorkListSolver<>(analysis,
+                    options.getBooleanOrDefault("worklist-stats", false));
+        } else if (worklist.equals("wto")) {
+            return new WTOSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown work-list strategy: " + worklist);
+        }
+    }
+
+    /**
+     * Replaces the facts of given result by their canonical facts,
+     * and records the deduplication in the metrics of the result.
+     */
+    protected void internFacts(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        FactInterner<Fact> interner = new FactInterner<>();
+        interner.intern(result, cfg);
+        result.getMetrics().setInterning(
+                interner.getInternedFacts(), interner.getUniqueFacts());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Node, Fact> Solver<Node, Fact> makeDeltaSolver(
+            DeltaDataflowAnalysis<?, ?> analysis) {
+        return (Solver<Node, Fact>) new DeltaWorkListSolver<>(analysis);
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
      * @param cfg control-flow graph where the analysis is performed on
-     * @return the analysis result
+     * @return the analysis result, which carries the {@link SolverMetrics}
+     * of the solving
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        long start = System.nanoTime();
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        if (intern) {
+            internFacts(cfg, result);
+        }
+        result.getMetrics().setTime(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Solves given CFG incrementally, i.e., reuses the facts of a previous
+     * solving on an earlier version of the CFG, and only re-solves
+     * the facts of the nodes affected by the changes of the CFG, i.e.,
+     * the nodes reachable from the changed nodes in the direction of
+     * the analysis. The result is the same as {@link #solve(CFG)}.
+     * <p>
+     * The nodes are matched with those of the previous result by identity
+     * (see {@link DataflowResult#hasFactsOf}), thus the statements which
+     * moved to other indexes since the previous solving are re-solved.
+     * The entry and exit of the CFG, which are fresh nodes every time
+     * the CFG is built, are matched with the entry and exit of the previous
+     * CFG by their roles if the previous result records them (see
+     * {@link ArrayDataflowResult#getEntry()}).
+     * <p>
+     * The affected nodes are re-solved by the work-list strategy of this
+     * solver (see {@link #doSolveForward(CFG, DataflowResult, List)}).
+     *
+     * @param cfg      the changed CFG
+     * @param previous the result of solving the earlier version of the CFG
+     *                 by this solver, which is not modified. The result
+     *                 returned by this method shares the facts of
+     *                 the unaffected nodes with it.
+     * @param changed  the nodes of the changed CFG which are new or whose
+     *                 statements changed, and the source and target nodes
+     *                 of the edges which were added or removed
+     * @return the analysis result, which carries the {@link SolverMetrics}
+     * of the re-solving
+     */
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg,
+                                            DataflowResult<Node, Fact> previous,
+                                            Set<Node> changed) {
+        long start = System.nanoTime();
+        Set<Node> affected = getAffectedNodes(cfg, previous, changed);
+        DataflowResult<Node, Fact> result = newResult(cfg);
+        result.setMetrics(new SolverMetrics());
+        Node boundary = analysis.isForward() ? cfg.getEntry() : cfg.getExit();
+        for (Node node : cfg) {
+            if (!affected.contains(node)) {
+                Node previousNode = getPreviousNode(cfg, previous, node);
+                result.setInFact(node, previous.getInFact(previousNode));
+                result.setOutFact(node, previous.getOutFact(previousNode));
+            } else if (node.equals(boundary)) {
+                result.setInFact(node, analysis.newBoundaryFact(cfg));
+                result.setOutFact(node, analysis.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
+        List<Node> initialNodes = new ArrayList<>(affected.size());
+        for (Node node : cfg) {
+            if (affected.contains(node)) {
+                initialNodes.add(node);
+            }
+        }
+        if (analysis.isForward()) {
+            doSolveForward(cfg, result, initialNodes);
+        } else {
+            doSolveBackward(cfg, result, initialNodes);
+        }
+        if (intern) {
+            internFacts(cfg, result);
+        }
+        result.getMetrics().setTime(System.nanoTime() - start);
         return result;
     }
 
+    /**
+     * @return the nodes whose facts need to be re-solved, i.e., the nodes
+     * reachable from the changed nodes, the nodes without previous facts
+     * (including the nodes which are not in the previous CFG, or moved to
+     * other indexes since the previous solving),
+     * and the boundary node (entry or exit) if its boundary fact changed.
+     */
+    private Set<Node> getAffectedNodes(CFG<Node> cfg,
+                                       DataflowResult<Node, Fact> previous,
+                                       Set<Node> changed) {
+        boolean forward = analysis.isForward();
+        Deque<Node> workList = new ArrayDeque<>();
+        for (Node node : cfg) {
+            // a node whose statement moved to another index (e.g., as
+            // statements were inserted before it) has no facts in
+            // the previous result, even if its index is still in range
+            Node previousNode = getPreviousNode(cfg, previous, node);
+            if (changed.contains(node) || !previous.hasFactsOf(previousNode)
+                    || previous.getInFact(previousNode) == null
+                    || previous.getOutFact(previousNode) == null) {
+                workList.add(node);
+            }
+        }
+        Node boundary = getPreviousNode(cfg, previous,
+                forward ? cfg.getEntry() : cfg.getExit());
+        Fact boundaryFact = !previous.hasFactsOf(boundary) ? null : forward ?
+                previous.getInFact(boundary) : previous.getOutFact(boundary);
+        if (!analysis.newBoundaryFact(cfg).equals(boundaryFact)) {
+            workList.add(forward ? cfg.getEntry() : cfg.getExit());
+        }
+        Set<Node> affected = new HashSet<>();
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            if (affected.add(node)) {
+                workList.addAll(forward ?
+                        cfg.getSuccsOf(node) : cfg.getPredsOf(node));
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return the node of the previous CFG whose facts in given previous
+     * result are reused for given node, i.e., the previous entry (exit)
+     * for the entry (exit) of given CFG if the previous result records it,
+     * otherwise the node itself.
+     */
+    private static <Node, Fact> Node getPreviousNode(
+            CFG<Node> cfg, DataflowResult<Node, Fact> previous, Node node) {
+        if (previous instanceof ArrayDataflowResult<Node, Fact> arrayResult) {
+            if (cfg.isEntry(node)) {
+                return arrayResult.getEntry();
+            } else if (cfg.isExit(node)) {
+                return arrayResult.getExit();
+            }
+        }
+        return node;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
-    private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+    DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
+        DataflowResult<Node, Fact> result = newResult(cfg);
+        result.setMetrics(new SolverMetrics());
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +344,15 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Creates a new empty data-flow result for given CFG.
+     * For CFGs of statements, the result is an {@link ArrayDataflowResult}.
+     */
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return cfg.getEntry() instanceof Stmt ?
+                new ArrayDataflowResult<>(cfg) : new DataflowResult<>();
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
         result.setInFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
@@ -83,8 +360,8 @@ public abstract class Solver<Node, Fact> {
         for(Node node:cfg)
         {
             if(!cfg.isEntry(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
@@ -96,8 +373,8 @@ public abstract class Solver<Node, Fact> {
         for(Node node:cfg)
         {
             if(!cfg.isExit(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
 
@@ -117,4 +394,27 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Solves given CFG incrementally, where only the facts of given nodes
+     * have been reset, and the facts of other nodes are already stable.
+     * By default, the nodes are visited in FIFO order starting from given
+     * nodes; solvers which visit nodes in other orders override this method
+     * to re-solve the nodes in their orders.
+     *
+     * @param initialNodes the nodes whose facts have been reset, in the order
+     *                     of the CFG
+     */
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  List<Node> initialNodes) {
+        new WorkListSolver<>(analysis).solveForward(cfg, result, initialNodes);
+    }
+
+    /**
+     * Backward counterpart of {@link #doSolveForward(CFG, DataflowResult, List)}.
+     */
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> initialNodes) {
+        new WorkListSolver<>(analysis).solveBackward(cfg, result, initialNodes);
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+
+import java.util.Locale;
+
+/**
+ * Metrics of solving a data-flow problem on a CFG or an ICFG, i.e.,
+ * <ul>
+ *     <li>the number of nodes popped from the work-list (or visited
+ *     by the iterations),</li>
+ *     <li>the number of transfers which changed facts,</li>
+ *     <li>the number of meet operations,</li>
+ *     <li>the peak size of the facts changed by transfers,</li>
+ *     <li>the numbers of facts and distinct facts if the facts are
+ *     interned (see {@link pascal.taie.analysis.dataflow.fact.FactInterner}),
+ *     and</li>
+ *     <li>the wall time of the solving.</li>
+ * </ul>
+ * Recording the metrics only increments a few fields, thus solvers always
+ * record them. An instance is only updated by the thread which performs
+ * the solving, thus it needs no synchronization.
+ */
+public class SolverMetrics {
+
+    /**
+     * Header of the CSV rows given by {@link #toCSV(String, String)}.
+     */
+    public static final String CSV_HEADER =
+            "target,analysis,pops,changed-transfers,meets,peak-fact-size," +
+                    "interned-facts,unique-facts,dedup-ratio,time-ms";
+
+    private long pops;
+
+    private long changedTransfers;
+
+    private long meets;
+
+    private int peakFactSize;
+
+    private long internedFacts;
+
+    private long uniqueFacts;
+
+    private long time;
+
+    public void countPop() {
+        ++pops;
+    }
+
+    public void countMeet() {
+        ++meets;
+    }
+
+    /**
+     * Records a transfer which produced given fact.
+     *
+     * @param changed whether the transfer changed the fact
+     */
+    public void countTransfer(boolean changed, Object fact) {
+        if (changed) {
+            ++changedTransfers;
+            peakFactSize = Math.max(peakFactSize, sizeOf(fact));
+        }
+    }
+
+    /**
+     * Records the result of interning the facts of the solving.
+     *
+     * @param internedFacts number of facts (including duplicates)
+     * @param uniqueFacts   number of distinct facts
+     */
+    public void setInterning(long internedFacts, long uniqueFacts) {
+        this.internedFacts = internedFacts;
+        this.uniqueFacts = uniqueFacts;
+    }
+
+    /**
+     * Sets the wall time of the solving in nanoseconds.
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public long getPops() {
+        return pops;
+    }
+
+    public long getChangedTransfers() {
+        return changedTransfers;
+    }
+
+    public long getMeets() {
+        return meets;
+    }
+
+    public int getPeakFactSize() {
+        return peakFactSize;
+    }
+
+    public long getInternedFacts() {
+        return internedFacts;
+    }
+
+    public long getUniqueFacts() {
+        return uniqueFacts;
+    }
+
+    /**
+     * @return the fraction of the interned facts which are duplicates,
+     * i.e., are replaced by their canonical facts,
+     * or 0 if the facts are not interned.
+     */
+    public double getDedupRatio() {
+        return internedFacts == 0 ? 0 :
+                1 - (double) uniqueFacts / internedFacts;
+    }
+
+    /**
+     * @return wall time of the solving in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the number of elements in given fact, or 0 if
+     * the fact is neither a {@link SetFact} nor a {@link MapFact}.
+     */
+    private static int sizeOf(Object fact) {
+        if (fact instanceof SetFact<?> setFact) {
+            return setFact.size();
+        } else if (fact instanceof MapFact<?, ?> mapFact) {
+            return mapFact.keySet().size();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * @param target   what the metrics are recorded for,
+     *                 e.g., the signature of a method
+     * @param analysis ID of the analysis
+     * @return a CSV row of the metrics, whose columns are given by
+     * {@link #CSV_HEADER}.
+     */
+    public String toCSV(String target, String analysis) {
+        return String.format(Locale.ROOT, "\"%s\",\"%s\",%d,%d,%d,%d,%d,%d,%.3f,%.3f",
+                target.replace("\"", "\"\""), analysis.replace("\"", "\"\""),
+                pops, changedTransfers, meets, peakFactSize,
+                internedFacts, uniqueFacts, getDedupRatio(), time / 1e6);
+    }
+
+    /**
+     * @param target   what the metrics are recorded for,
+     *                 e.g., the signature of a method
+     * @param analysis ID of the analysis
+     * @return a JSON object of the metrics.
+     */
+    public String toJSON(String target, String analysis) {
+        return String.format(Locale.ROOT, "{\"target\":\"%s\",\"analysis\":\"%s\"," +
+                        "\"pops\":%d,\"changed-transfers\":%d,\"meets\":%d," +
+                        "\"peak-fact-size\":%d,\"interned-facts\":%d," +
+                        "\"unique-facts\":%d,\"dedup-ratio\":%.3f,\"time-ms\":%.3f}",
+                escapeJSON(target), escapeJSON(analysis),
+                pops, changedTransfers, meets, peakFactSize,
+                internedFacts, uniqueFacts, getDedupRatio(), time / 1e6);
+    }
+
+    private static String escapeJSON(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    @Override
+    public String toString() {
+        return "SolverMetrics{pops=" + pops +
+                ", changed-transfers=" + changedTransfers +
+                ", meets=" + meets +
+                ", peak-fact-size=" + peakFactSize +
+                ", interned-facts=" + internedFacts +
+                ", unique-facts=" + uniqueFacts +
+                ", time-ms=" + time / 1e6 + "}";
+    }
+}
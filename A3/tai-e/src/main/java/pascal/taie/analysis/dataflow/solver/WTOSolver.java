@@ -0,0 +1,279 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.TransferFunction;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.ReverseGraph;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Solver which visits nodes in a weak topological ordering (WTO)
+ * of the CFG (reversed CFG for backward analyses), and stabilizes
+ * each loop before visiting the nodes after it, i.e., the recursive
+ * iteration strategy in Bourdoncle's "Efficient chaotic iteration
+ * strategies with widenings".
+ * <p>
+ * A WTO is a list of components in topological order, where a component
+ * is either a single node, or a loop which consists of a head node and
+ * a WTO of the rest nodes of the loop. A loop is solved by visiting its
+ * head and then solving its body repeatedly, until visiting the head
+ * does not change its fact.
+ */
+class WTOSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WTOSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveForward(cfg, result, null);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveBackward(cfg, result, null);
+    }
+
+    /**
+     * Re-solves given nodes in the WTO. A node is visited only if it is
+     * one of given nodes, or the fact of its predecessor (successor for
+     * backward analyses) changed since its last visit, so that the nodes
+     * whose facts are stable are not transferred again.
+     */
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  List<Node> initialNodes) {
+        solveForward(cfg, result, new HashSet<>(initialNodes));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> initialNodes) {
+        solveBackward(cfg, result, new HashSet<>(initialNodes));
+    }
+
+    /**
+     * @param dirty the nodes to be visited, which is updated during
+     *              the solving, or null if all nodes are visited.
+     */
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              Set<Node> dirty) {
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, Fact> transfer = analysis.getTransferFunction(cfg);
+        solve(computeWTO(cfg, cfg.getEntry()), node -> {
+            if (dirty != null && !dirty.remove(node)) {
+                return false;
+            }
+            metrics.countPop();
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+                metrics.countMeet();
+            }
+            Fact out = result.getOutFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, out);
+            if (changed && dirty != null) {
+                dirty.addAll(cfg.getSuccsOf(node));
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * @param dirty the nodes to be visited, which is updated during
+     *              the solving, or null if all nodes are visited.
+     */
+    private void solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Set<Node> dirty) {
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, Fact> transfer = analysis.getTransferFunction(cfg);
+        solve(computeWTO(new ReverseGraph<>(cfg), cfg.getExit()), node -> {
+            if (dirty != null && !dirty.remove(node)) {
+                return false;
+            }
+            metrics.countPop();
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+                metrics.countMeet();
+            }
+            Fact in = result.getInFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, in);
+            if (changed && dirty != null) {
+                dirty.addAll(cfg.getPredsOf(node));
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Solves given components in order.
+     *
+     * @param visitor visits a node, and returns whether its fact changed.
+     */
+    private static <Node> void solve(List<Component<Node>> components,
+                                     Predicate<Node> visitor) {
+        for (Component<Node> component : components) {
+            visitor.test(component.head);
+            if (component.body != null) {
+                do {
+                    solve(component.body, visitor);
+                } while (visitor.test(component.head));
+            }
+        }
+    }
+
+    /**
+     * Component of a WTO. The body is null if the component is a single
+     * node, otherwise it is the WTO of the loop without its head.
+     */
+    private static class Component<Node> {
+
+        private final Node head;
+
+        private final List<Component<Node>> body;
+
+        private Component(Node head, List<Component<Node>> body) {
+            this.head = head;
+            this.body = body;
+        }
+    }
+
+    /**
+     * @return a WTO of given graph. Nodes unreachable from the entry are
+     * also included, after the nodes reachable from the entry.
+     */
+    private static <Node> List<Component<Node>> computeWTO(
+            Graph<Node> graph, Node entry) {
+        List<Node> nodes = new ArrayList<>(graph.getNumberOfNodes());
+        nodes.add(entry);
+        for (Node node : graph) {
+            if (!node.equals(entry)) {
+                nodes.add(node);
+            }
+        }
+        return decompose(graph, nodes);
+    }
+
+    /**
+     * Decomposes the subgraph of given graph induced by given nodes into
+     * SCCs, each of which becomes a component. The head of a loop is its
+     * first node visited by a depth-first traversal of the subgraph, and
+     * the body of the loop is decomposed recursively without the head,
+     * which breaks the edges back to the head.
+     *
+     * @param nodes nodes of the subgraph; the depth-first traversal starts
+     *              from them in their order in the list.
+     */
+    private static <Node> List<Component<Node>> decompose(
+            Graph<Node> graph, List<Node> nodes) {
+        Set<Node> nodeSet = new HashSet<>(nodes);
+        SimpleGraph<Node> subgraph = new SimpleGraph<>();
+        for (Node node : nodes) {
+            subgraph.addNode(node);
+            for (Node succ : graph.getSuccsOf(node)) {
+                if (nodeSet.contains(succ)) {
+                    subgraph.addEdge(node, succ);
+                }
+            }
+        }
+        // the first node of an SCC in reverse postorder is the one
+        // visited first, and sorting SCCs by their first nodes in
+        // reverse postorder gives topological order of the SCCs
+        Map<Node, Integer> positions = reversePostorderPositions(subgraph, nodes);
+        Comparator<Node> byPosition = Comparator.comparingInt(positions::get);
+        List<Component<Node>> components = new ArrayList<>();
+        for (List<Node> scc : new SCC<>(subgraph).getComponents()) {
+            Node head = Collections.min(scc, byPosition);
+            if (scc.size() == 1 && !subgraph.hasEdge(head, head)) {
+                components.add(new Component<>(head, null));
+            } else {
+                List<Node> rest = new ArrayList<>(scc);
+                rest.remove(head);
+                rest.sort(byPosition);
+                components.add(new Component<>(head, decompose(subgraph, rest)));
+            }
+        }
+        components.sort(Comparator.comparing(c -> c.head, byPosition));
+        return components;
+    }
+
+    /**
+     * @return the positions of the nodes of given graph in reverse postorder
+     * of depth-first traversal, which starts from given roots in order.
+     */
+    private static <Node> Map<Node, Integer> reversePostorderPositions(
+            Graph<Node> graph, List<Node> roots) {
+        List<Node> postorder = new ArrayList<>(roots.size());
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        for (Node root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            stack.push(root);
+            succs.push(graph.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> it = succs.peek();
+                if (it.hasNext()) {
+                    Node succ = it.next();
+                    if (visited.add(succ)) {
+                        stack.push(succ);
+                        succs.push(graph.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postorder.add(stack.pop());
+                    succs.pop();
+                }
+            }
+        }
+        Map<Node, Integer> positions = new HashMap<>(postorder.size());
+        for (int i = 0; i < postorder.size(); ++i) {
+            positions.put(postorder.get(i), postorder.size() - 1 - i);
+        }
+        return positions;
+    }
+}
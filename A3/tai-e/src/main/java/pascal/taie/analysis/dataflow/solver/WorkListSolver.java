@@ -23,11 +23,16 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.TransferFunction;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
 import java.util.LinkedList;
+import java.util.List;
 
+/**
+ * Work-list solver which processes nodes in FIFO order.
+ */
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
@@ -36,39 +41,101 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
+        solveForward(cfg, result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveBackward(cfg, result);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                  List<Node> initialNodes) {
+        solveForward(cfg, result, initialNodes);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> initialNodes) {
+        solveBackward(cfg, result, initialNodes);
+    }
+
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        return solveForward(cfg, result, cfg);
+    }
+
+    /**
+     * Solves given CFG with the work-list initialized by given nodes.
+     *
+     * @return the number of node visits performed by the solving.
+     */
+    int solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                     Iterable<Node> initialNodes) {
         var list = new LinkedList<Node>();
-        for(Node node: cfg)
+        for(Node node: initialNodes)
             list.add(node);
 
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, Fact> transfer = analysis.getTransferFunction(cfg);
         while(!list.isEmpty()){
             var node = list.removeFirst();
+            metrics.countPop();
             var in = result.getInFact(node);
-            for(Node n: cfg.getPredsOf(node))
+            for(Node n: cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(n), in);
-            if(analysis.transferNode(node, in, result.getOutFact(node)))
+                metrics.countMeet();
+            }
+            var out = result.getOutFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, out);
+            if(changed)
                 for(Node n: cfg.getSuccsOf(node))
                     if(!list.contains(n))
                         list.add(n);
         }
+        return (int) metrics.getPops();
     }
 
-    @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        // TODO - finish me
+    /**
+     * @return the number of node visits performed by the solving.
+     */
+    int solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        return solveBackward(cfg, result, cfg);
+    }
+
+    /**
+     * Solves given CFG with the work-list initialized by given nodes.
+     *
+     * @return the number of node visits performed by the solving.
+     */
+    int solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                     Iterable<Node> initialNodes) {
         var list = new LinkedList<Node>();
-        for(Node node: cfg)
+        for(Node node: initialNodes)
             list.add(node);
 
+        SolverMetrics metrics = result.getMetrics();
+        TransferFunction<Node, Fact> transfer = analysis.getTransferFunction(cfg);
         while(!list.isEmpty()){
             var node = list.removeFirst();
+            metrics.countPop();
             var out = result.getOutFact(node);
-            for(Node n: cfg.getSuccsOf(node))
+            for(Node n: cfg.getSuccsOf(node)) {
                 analysis.meetInto(result.getInFact(n), out);
-            if(analysis.transferNode(node, result.getInFact(node), out))
+                metrics.countMeet();
+            }
+            var in = result.getInFact(node);
+            boolean changed = transfer.transferNode(node, in, out);
+            metrics.countTransfer(changed, in);
+            if(changed)
                 for(Node n: cfg.getPredsOf(node))
                     if(!list.contains(n))
                         list.add(n);
         }
+        return (int) metrics.getPops();
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.util.List;
+
+/**
+ * Represents a basic block, i.e., a maximal sequence of statements in
+ * a CFG, such that control flows from each statement (except the last one)
+ * only to the next statement, and each statement (except the first one)
+ * is only reachable from the previous statement.
+ *
+ * @see BlockCFG
+ */
+public class BasicBlock implements Indexable {
+
+    private final int index;
+
+    private final List<Stmt> stmts;
+
+    BasicBlock(int index, List<Stmt> stmts) {
+        this.index = index;
+        this.stmts = List.copyOf(stmts);
+    }
+
+    /**
+     * @return index of this block in its {@link BlockCFG}.
+     */
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the statements in this block, in execution order.
+     */
+    public List<Stmt> getStmts() {
+        return stmts;
+    }
+
+    public Stmt getFirstStmt() {
+        return stmts.get(0);
+    }
+
+    public Stmt getLastStmt() {
+        return stmts.get(stmts.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "B" + index + stmts;
+    }
+}
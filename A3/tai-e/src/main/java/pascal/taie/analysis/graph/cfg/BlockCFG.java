@@ -0,0 +1,270 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Basic-block view of a {@link CFG} of statements. Each node of this graph
+ * is a {@link BasicBlock}, and each edge corresponds to the edge of
+ * the underlying CFG from the last statement of its source block
+ * to the first statement of its target block.
+ * <p>
+ * The entry and the exit of the underlying CFG always form blocks
+ * on their own, so that they are the entry and the exit of this graph.
+ */
+public class BlockCFG implements CFG<BasicBlock> {
+
+    private final CFG<Stmt> cfg;
+
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    /**
+     * Index of the block containing each statement, indexed by
+     * {@link Stmt#getIndex()}.
+     */
+    private final int[] blockOf;
+
+    /**
+     * Position of each statement in its block, indexed by
+     * {@link Stmt#getIndex()}.
+     */
+    private final int[] positionOf;
+
+    private final List<Set<Edge<BasicBlock>>> inEdges = new ArrayList<>();
+
+    private final List<Set<Edge<BasicBlock>>> outEdges = new ArrayList<>();
+
+    private final List<Set<BasicBlock>> preds = new ArrayList<>();
+
+    private final List<Set<BasicBlock>> succs = new ArrayList<>();
+
+    private final Set<BasicBlock> blockSet;
+
+    public BlockCFG(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        int maxIndex = -1;
+        for (Stmt stmt : cfg) {
+            maxIndex = Math.max(maxIndex, stmt.getIndex());
+        }
+        blockOf = new int[maxIndex + 1];
+        positionOf = new int[maxIndex + 1];
+        Arrays.fill(blockOf, -1);
+        // visit statements in a stable order, starting from the entry
+        List<Stmt> stmts = new ArrayList<>(cfg.getNodes());
+        stmts.sort(Comparator.comparingInt((Stmt s) -> cfg.isEntry(s) ? 0 : 1)
+                .thenComparingInt(Stmt::getIndex));
+        for (Stmt stmt : stmts) {
+            if (blockOf[stmt.getIndex()] < 0 && isLeader(stmt)) {
+                buildBlock(stmt);
+            }
+        }
+        // remaining statements form cycles unreachable from leaders
+        for (Stmt stmt : stmts) {
+            if (blockOf[stmt.getIndex()] < 0) {
+                buildBlock(stmt);
+            }
+        }
+        for (BasicBlock block : blocks) {
+            Set<Edge<BasicBlock>> out = Sets.newHybridSet();
+            Set<BasicBlock> succ = Sets.newHybridSet();
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(block.getLastStmt())) {
+                BasicBlock target = getBlockOf(edge.getTarget());
+                out.add(toBlockEdge(edge, block, target));
+                succ.add(target);
+            }
+            outEdges.add(Collections.unmodifiableSet(out));
+            succs.add(Collections.unmodifiableSet(succ));
+            Set<Edge<BasicBlock>> in = Sets.newHybridSet();
+            Set<BasicBlock> pred = Sets.newHybridSet();
+            for (Edge<Stmt> edge : cfg.getInEdgesOf(block.getFirstStmt())) {
+                BasicBlock source = getBlockOf(edge.getSource());
+                in.add(toBlockEdge(edge, source, block));
+                pred.add(source);
+            }
+            inEdges.add(Collections.unmodifiableSet(in));
+            preds.add(Collections.unmodifiableSet(pred));
+        }
+        Set<BasicBlock> blockSet = Sets.newHybridOrderedSet();
+        blockSet.addAll(blocks);
+        this.blockSet = Collections.unmodifiableSet(blockSet);
+    }
+
+    /**
+     * @return true if given statement starts a block.
+     */
+    private boolean isLeader(Stmt stmt) {
+        if (cfg.isEntry(stmt) || cfg.isExit(stmt) ||
+                cfg.getInDegreeOf(stmt) != 1) {
+            return true;
+        }
+        Stmt pred = cfg.getPredsOf(stmt).iterator().next();
+        return cfg.isEntry(pred) || cfg.getOutDegreeOf(pred) != 1;
+    }
+
+    /**
+     * Builds the block starting from given statement.
+     */
+    private void buildBlock(Stmt first) {
+        int index = blocks.size();
+        List<Stmt> stmts = new ArrayList<>();
+        Stmt stmt = first;
+        while (true) {
+            blockOf[stmt.getIndex()] = index;
+            positionOf[stmt.getIndex()] = stmts.size();
+            stmts.add(stmt);
+            if (cfg.isEntry(stmt) || cfg.getOutDegreeOf(stmt) != 1) {
+                break;
+            }
+            Stmt next = cfg.getSuccsOf(stmt).iterator().next();
+            if (cfg.isExit(next) || cfg.getInDegreeOf(next) != 1 ||
+                    blockOf[next.getIndex()] >= 0) {
+                break;
+            }
+            stmt = next;
+        }
+        blocks.add(new BasicBlock(index, stmts));
+    }
+
+    private static Edge<BasicBlock> toBlockEdge(
+            Edge<Stmt> edge, BasicBlock source, BasicBlock target) {
+        if (edge.isSwitchCase()) {
+            return new SwitchCaseEdge<>(source, target, edge.getCaseValue());
+        } else if (edge.isExceptional()) {
+            return new ExceptionalEdge<>(edge.getKind(), source, target,
+                    edge.getExceptions());
+        } else {
+            return new Edge<>(edge.getKind(), source, target);
+        }
+    }
+
+    /**
+     * @return the underlying CFG of statements.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the block containing given statement.
+     */
+    public BasicBlock getBlockOf(Stmt stmt) {
+        return blocks.get(blockOf[stmt.getIndex()]);
+    }
+
+    /**
+     * @return the position of given statement in its block.
+     */
+    public int getPositionOf(Stmt stmt) {
+        return positionOf[stmt.getIndex()];
+    }
+
+    /**
+     * @return the block of given index.
+     */
+    public BasicBlock getBlock(int index) {
+        return blocks.get(index);
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public BasicBlock getEntry() {
+        return getBlockOf(cfg.getEntry());
+    }
+
+    @Override
+    public BasicBlock getExit() {
+        return getBlockOf(cfg.getExit());
+    }
+
+    @Override
+    public boolean isEntry(BasicBlock block) {
+        return block == getEntry();
+    }
+
+    @Override
+    public boolean isExit(BasicBlock block) {
+        return block == getExit();
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock block) {
+        return block.getIndex() < blocks.size() &&
+                blocks.get(block.getIndex()) == block;
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock source, BasicBlock target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<BasicBlock> getPredsOf(BasicBlock block) {
+        return preds.get(block.getIndex());
+    }
+
+    @Override
+    public Set<BasicBlock> getSuccsOf(BasicBlock block) {
+        return succs.get(block.getIndex());
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getInEdgesOf(BasicBlock block) {
+        return inEdges.get(block.getIndex());
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getOutEdgesOf(BasicBlock block) {
+        return outEdges.get(block.getIndex());
+    }
+
+    @Override
+    public Set<BasicBlock> getNodes() {
+        return blockSet;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
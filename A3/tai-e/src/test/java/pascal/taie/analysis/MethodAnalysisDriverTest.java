@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that {@link MethodAnalysisDriver} gives the same results
+ * with one thread and with multiple threads.
+ */
+public class MethodAnalysisDriverTest {
+
+    @Test
+    public void testThreads() {
+        List<MethodAnalysis> analyses = List.of(
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "strongly", false)),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false)),
+                new DeadCodeDetection(new AnalysisConfig(
+                        DeadCodeDetection.ID, "sccp", false, "liveness", "full")));
+        for (String program : Tests.DEADCODE_PROGRAMS) {
+            List<IR> irs = Tests.buildIRs(program, Tests.DEADCODE_CLASS_PATH);
+            MethodAnalysisDriver.analyze(irs, analyses, null, 1);
+            List<List<Object>> expected = collectResults(irs, analyses);
+            MethodAnalysisDriver.analyze(irs, analyses, null, 4);
+            List<List<Object>> actual = collectResults(irs, analyses);
+            for (int i = 0; i < irs.size(); ++i) {
+                IR ir = irs.get(i);
+                List<Object> expectedResults = expected.get(i);
+                List<Object> actualResults = actual.get(i);
+                for (int j = 0; j < analyses.size(); ++j) {
+                    Object expectedResult = expectedResults.get(j);
+                    Object actualResult = actualResults.get(j);
+                    Assert.assertNotSame(expectedResult, actualResult);
+                    if (expectedResult instanceof DataflowResult<?, ?>) {
+                        Tests.assertSameFacts(ir.getResult(CFGBuilder.ID),
+                                asResult(expectedResult), asResult(actualResult));
+                    } else {
+                        Assert.assertEquals(analyses.get(j).getId() + " on " +
+                                ir.getMethod(), expectedResult, actualResult);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the results of given analyses stored in each of given IRs.
+     */
+    private static List<List<Object>> collectResults(
+            List<IR> irs, List<MethodAnalysis> analyses) {
+        List<List<Object>> results = new ArrayList<>(irs.size());
+        for (IR ir : irs) {
+            List<Object> irResults = new ArrayList<>(analyses.size());
+            for (MethodAnalysis analysis : analyses) {
+                Object result = ir.getResult(analysis.getId());
+                Assert.assertNotNull(analysis.getId() + " on " + ir.getMethod(), result);
+                irResults.add(result);
+            }
+            results.add(irResults);
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DataflowResult<Stmt, Object> asResult(Object result) {
+        return (DataflowResult<Stmt, Object>) result;
+    }
+}
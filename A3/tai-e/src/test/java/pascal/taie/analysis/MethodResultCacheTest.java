@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks that the results saved to a {@link MethodResultCache} are decoded
+ * to the same results, and that the results are missed once their inputs
+ * change.
+ */
+public class MethodResultCacheTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<AbstractDataflowAnalysis<Stmt, ?>> analyses = List.of(
+                new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "strongly", false)),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false, "fact", "hybrid")),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false, "fact", "persistent")),
+                new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false, "fact", "array")));
+        List<IR> irs = Tests.buildIRs("Loops", Tests.DEADCODE_CLASS_PATH);
+        Path file = Files.createTempFile("method-results", ".cache");
+        try {
+            Files.delete(file);
+            MethodResultCache cache = MethodResultCache.open(file);
+            for (IR ir : irs) {
+                for (MethodAnalysis analysis : analyses) {
+                    cache.put(MethodResultCache.keyOf(ir, analysis),
+                            MethodResultCache.hash(ir), ir, analysis.analyze(ir));
+                }
+            }
+            cache.save();
+            MethodResultCache loaded = MethodResultCache.open(file);
+            for (IR ir : irs) {
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                for (MethodAnalysis analysis : analyses) {
+                    DataflowResult<Stmt, Object> expected = asResult(analysis.analyze(ir));
+                    DataflowResult<Stmt, Object> actual = asResult(loaded.get(
+                            MethodResultCache.keyOf(ir, analysis),
+                            MethodResultCache.hash(ir), ir, analysis));
+                    Assert.assertNotNull("Cached result of " + analysis.getId() +
+                            " on " + ir.getMethod(), actual);
+                    Tests.assertSameFacts(cfg, expected, actual);
+                    for (Stmt node : cfg) {
+                        Assert.assertEquals(expected.getInFact(node).getClass(),
+                                actual.getInFact(node).getClass());
+                        Assert.assertEquals(expected.getOutFact(node).getClass(),
+                                actual.getOutFact(node).getClass());
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDeadCodeRoundTrip() throws IOException {
+        MethodAnalysis livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false));
+        MethodAnalysis constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false));
+        MethodAnalysis deadcode = new DeadCodeDetection(new AnalysisConfig(
+                DeadCodeDetection.ID, "sccp", false, "liveness", "full"));
+        List<IR> irs = Tests.buildIRs("ControlFlowUnreachable", Tests.DEADCODE_CLASS_PATH);
+        Path file = Files.createTempFile("method-results", ".cache");
+        try {
+            Files.delete(file);
+            MethodResultCache cache = MethodResultCache.open(file);
+            for (IR ir : irs) {
+                ir.storeResult(livevar.getId(), livevar.analyze(ir));
+                ir.storeResult(constprop.getId(), constprop.analyze(ir));
+                long hash = hashInputs(ir, deadcode);
+                cache.put(MethodResultCache.keyOf(ir, deadcode), hash,
+                        ir, deadcode.analyze(ir));
+            }
+            cache.save();
+            MethodResultCache loaded = MethodResultCache.open(file);
+            for (IR ir : irs) {
+                Object actual = loaded.get(MethodResultCache.keyOf(ir, deadcode),
+                        hashInputs(ir, deadcode), ir, deadcode);
+                Assert.assertNotNull("Cached result of deadcode on " +
+                        ir.getMethod(), actual);
+                Assert.assertEquals(deadcode.analyze(ir), actual);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testChangedInputsMiss() {
+        MethodAnalysis livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false));
+        MethodAnalysis constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false));
+        IR ir = Tests.buildIRs("Loops", Tests.DEADCODE_CLASS_PATH).get(0);
+        MethodResultCache cache = MethodResultCache.open(
+                Path.of("method-results-not-exist.cache"));
+        String key = MethodResultCache.keyOf(ir, constprop);
+        long hash = hashInputs(ir, constprop);
+        cache.put(key, hash, ir, constprop.analyze(ir));
+        Assert.assertNotNull(cache.get(key, hash, ir, constprop));
+        // the IR changed
+        Assert.assertNull(cache.get(key, hash + 1, ir, constprop));
+        // the results stored in the IR before the analysis changed
+        ir.storeResult(livevar.getId(), livevar.analyze(ir));
+        long newHash = hashInputs(ir, constprop);
+        Assert.assertNotEquals(hash, newHash);
+        Assert.assertNull(cache.get(key, newHash, ir, constprop));
+        // the result of the analysis itself is not an input
+        ir.storeResult(constprop.getId(), constprop.analyze(ir));
+        Assert.assertEquals(newHash, hashInputs(ir, constprop));
+        // the inputs which cannot be hashed make the result uncacheable
+        ir.storeResult("unknown", new Object());
+        Assert.assertFalse(MethodResultCache.hashInputs(
+                MethodResultCache.hash(ir), ir, constprop.getId()).isPresent());
+        ir.clearResult("unknown");
+        ir.clearResult(livevar.getId());
+        ir.clearResult(constprop.getId());
+    }
+
+    private static long hashInputs(IR ir, MethodAnalysis analysis) {
+        return MethodResultCache.hashInputs(MethodResultCache.hash(ir),
+                ir, analysis.getId()).orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DataflowResult<Stmt, Object> asResult(Object result) {
+        return (DataflowResult<Stmt, Object>) result;
+    }
+}
@@ -34,6 +34,17 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    /**
+     * Dead code detected with the reachability computed by cond-constprop
+     * is the same as the expected results of the default detection.
+     */
+    void testDCDWithSCCP(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "sccp:true",
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false");
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +69,29 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testControlFlowUnreachableWithSCCP() {
+        testDCDWithSCCP("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testUnreachableIfBranchWithSCCP() {
+        testDCDWithSCCP("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchWithSCCP() {
+        testDCDWithSCCP("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testDeadAssignmentWithSCCP() {
+        testDCDWithSCCP("DeadAssignment");
+    }
+
+    @Test
+    public void testLoopsWithSCCP() {
+        testDCDWithSCCP("Loops");
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that {@link DemandLiveVariables} answers the same liveness
+ * as the exhaustive {@link LiveVariableAnalysis}.
+ */
+public class DemandLiveVariablesTest {
+
+    @Test
+    public void testSameAsLiveVariableAnalysis() {
+        testQueries(false);
+    }
+
+    /**
+     * Queries the statements in reverse order, which checks that
+     * the memoized liveness does not depend on the order of queries.
+     */
+    @Test
+    public void testReverseQueries() {
+        testQueries(true);
+    }
+
+    private static void testQueries(boolean reverse) {
+        LiveVariableAnalysis liveVars = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false));
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, SetFact<Var>> expected = liveVars.analyze(ir);
+            DemandLiveVariables demand = new DemandLiveVariables(cfg);
+            List<Stmt> stmts = new ArrayList<>(ir.getStmts());
+            if (reverse) {
+                Collections.reverse(stmts);
+            }
+            for (Stmt stmt : stmts) {
+                for (Var var : ir.getVars()) {
+                    Assert.assertEquals("Liveness of " + var + " after " +
+                                    stmt + " in " + ir.getMethod(),
+                            expected.getOutFact(stmt).contains(var),
+                            demand.isLiveAfter(var, stmt));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that solving analyses by {@link ProductAnalysis} gives the same
+ * results as solving them separately.
+ */
+public class ProductAnalysisTest {
+
+    @Test
+    public void testForward() {
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", true));
+        ProductAnalysis<Stmt> product = ProductAnalysis.of(constprop);
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            DataflowResult<Stmt, CPFact> expected = constprop.analyze(ir);
+            product.analyze(ir);
+            DataflowResult<Stmt, CPFact> actual = ir.getResult(ConstantPropagation.ID);
+            Tests.assertSameFacts(ir.getResult(CFGBuilder.ID), expected, actual);
+        });
+    }
+
+    @Test
+    public void testBackward() {
+        LiveVariableAnalysis liveVars = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false));
+        ProductAnalysis<Stmt> product = ProductAnalysis.of(liveVars);
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            DataflowResult<Stmt, SetFact<Var>> expected = liveVars.analyze(ir);
+            product.analyze(ir);
+            DataflowResult<Stmt, SetFact<Var>> actual = ir.getResult(LiveVariableAnalysis.ID);
+            Tests.assertSameFacts(ir.getResult(CFGBuilder.ID), expected, actual);
+        });
+    }
+
+    /**
+     * Creates the product from the analysis configuration, with options
+     * of the analysis overridden in the options of the product.
+     */
+    @Test
+    public void testConfig() {
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID,
+                        "edge-refine", false, "fact", "array"));
+        for (IR ir : Tests.buildIRs("Loops", Tests.DEADCODE_CLASS_PATH)) {
+            ProductAnalysis<Stmt> product = new ProductAnalysis<>(new AnalysisConfig(
+                    ProductAnalysis.ID,
+                    "analyses", List.of(ConstantPropagation.ID),
+                    ConstantPropagation.ID, Map.of("edge-refine", false, "fact", "array")));
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, CPFact> expected = constprop.analyze(ir);
+            product.analyze(ir);
+            DataflowResult<Stmt, CPFact> actual = ir.getResult(ConstantPropagation.ID);
+            Tests.assertSameFacts(cfg, expected, actual);
+        }
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testMixedDirections() {
+        ProductAnalysis.of(
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                        "edge-refine", true)),
+                new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false)));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayCPFactTest {
+
+    private static final List<Integer> CONSTANTS = List.of(
+            0, 1, -1, 127, 128, -128, -129,
+            Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+    private static Var newVar(String name, int index) {
+        return new Var(null, name, PrimitiveType.INT, index);
+    }
+
+    @Test
+    public void testPackConstants() {
+        for (int c : CONSTANTS) {
+            long packed = ArrayCPFact.makeConstant(c);
+            assertTrue(ArrayCPFact.isConstant(packed));
+            assertFalse(ArrayCPFact.isUndef(packed));
+            assertFalse(ArrayCPFact.isNAC(packed));
+            assertEquals(c, ArrayCPFact.getConstant(packed));
+            assertEquals(packed, ArrayCPFact.pack(Value.makeConstant(c)));
+            assertEquals(Value.makeConstant(c), ArrayCPFact.unpack(packed));
+        }
+    }
+
+    @Test
+    public void testPackUndefAndNAC() {
+        assertTrue(ArrayCPFact.isUndef(ArrayCPFact.UNDEF));
+        assertTrue(ArrayCPFact.isNAC(ArrayCPFact.NAC));
+        assertFalse(ArrayCPFact.isConstant(ArrayCPFact.UNDEF));
+        assertFalse(ArrayCPFact.isConstant(ArrayCPFact.NAC));
+        assertEquals(ArrayCPFact.UNDEF, ArrayCPFact.pack(Value.getUndef()));
+        assertEquals(ArrayCPFact.NAC, ArrayCPFact.pack(Value.getNAC()));
+        assertTrue(ArrayCPFact.unpack(ArrayCPFact.UNDEF).isUndef());
+        assertTrue(ArrayCPFact.unpack(ArrayCPFact.NAC).isNAC());
+    }
+
+    @Test
+    public void testUpdate() {
+        Var x = newVar("x", 0);
+        Var y = newVar("y", 5);
+        ArrayCPFact fact = new ArrayCPFact();
+        assertTrue(fact.get(y).isUndef());
+        for (int c : CONSTANTS) {
+            fact.update(y, Value.makeConstant(c));
+            assertEquals(Value.makeConstant(c), fact.get(y));
+            assertEquals(ArrayCPFact.makeConstant(c), fact.getPacked(y));
+        }
+        assertTrue(fact.update(x, Value.getNAC()));
+        assertFalse(fact.update(x, Value.getNAC()));
+        assertTrue(fact.get(x).isNAC());
+        assertEquals(2, fact.keySet().size());
+        // updating to UNDEF removes the variable
+        assertTrue(fact.update(x, Value.getUndef()));
+        assertFalse(fact.update(x, Value.getUndef()));
+        assertTrue(fact.get(x).isUndef());
+        assertEquals(List.of(y), List.copyOf(fact.keySet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindVarOfAnotherMethod() {
+        ArrayCPFact fact = new ArrayCPFact();
+        fact.update(newVar("x", 1), Value.makeConstant(1));
+        // a variable of another method which has the same index
+        fact.update(newVar("x", 1), Value.makeConstant(2));
+    }
+
+    @Test
+    public void testGetVarOfAnotherMethod() {
+        ArrayCPFact fact = new ArrayCPFact();
+        fact.update(newVar("x", 1), Value.makeConstant(1));
+        assertTrue(fact.get(newVar("x", 1)).isUndef());
+    }
+
+    @Test
+    public void testSameAsHybrid() {
+        Var x = newVar("x", 0);
+        Var y = newVar("y", 3);
+        Var z = newVar("z", 64);
+        CPFact hybrid = new CPFact();
+        hybrid.update(x, Value.makeConstant(Integer.MIN_VALUE));
+        hybrid.update(y, Value.getNAC());
+        hybrid.update(z, Value.makeConstant(1000));
+        ArrayCPFact array = new ArrayCPFact();
+        array.update(z, Value.makeConstant(1000));
+        array.update(x, Value.makeConstant(Integer.MIN_VALUE));
+        array.update(y, Value.getNAC());
+        assertSameContents(hybrid, array);
+        ArrayCPFact copied = new ArrayCPFact();
+        assertTrue(copied.copyFrom(hybrid));
+        assertSameContents(hybrid, copied);
+        assertEquals(array, copied);
+        assertEquals(array, array.copy());
+        // removing a variable keeps the contents in sync
+        hybrid.update(y, Value.getUndef());
+        array.update(y, Value.getUndef());
+        assertSameContents(hybrid, array);
+    }
+
+    private static void assertSameContents(CPFact expected, CPFact actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Var var : expected.keySet()) {
+            assertEquals(expected.get(var), actual.get(var));
+        }
+        // facts of different representations are not equal by equals(),
+        // but have the same stable string form
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
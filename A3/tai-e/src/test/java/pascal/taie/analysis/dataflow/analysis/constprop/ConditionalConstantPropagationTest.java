@@ -0,0 +1,83 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Checks that {@link ConditionalConstantPropagation} is at least as
+ * precise as {@link ConstantPropagation} on the reachable statements.
+ */
+public class ConditionalConstantPropagationTest {
+
+    @Test
+    public void testPrecision() {
+        ConstantPropagation cp = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+        ConditionalConstantPropagation ccp = new ConditionalConstantPropagation(
+                new AnalysisConfig(ConditionalConstantPropagation.ID));
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, CPFact> cpResult = cp.analyze(ir);
+            CCPResult ccpResult = ccp.analyze(ir);
+            for (Stmt stmt : cfg) {
+                if (ccpResult.isReachable(stmt)) {
+                    assertAtLeastAsPrecise(ir, stmt,
+                            cpResult.getInFact(stmt), ccpResult.getInFact(stmt));
+                    assertAtLeastAsPrecise(ir, stmt,
+                            cpResult.getOutFact(stmt), ccpResult.getOutFact(stmt));
+                }
+            }
+        });
+    }
+
+    /**
+     * Asserts that the value of each variable in given fact of ccp is
+     * lower than or equal to its value in given fact of cp in the lattice,
+     * i.e., UNDEF is lower than constants, which are lower than NAC.
+     */
+    private static void assertAtLeastAsPrecise(IR ir, Stmt stmt,
+                                               CPFact cpFact, CPFact ccpFact) {
+        for (Var var : ir.getVars()) {
+            Value cpValue = cpFact.get(var);
+            Value ccpValue = ccpFact.get(var);
+            String message = var + " at " + stmt + " in " + ir.getMethod() +
+                    ": constprop " + cpValue + ", cond-constprop " + ccpValue;
+            if (cpValue.isUndef()) {
+                Assert.assertTrue(message, ccpValue.isUndef());
+            } else if (cpValue.isConstant()) {
+                Assert.assertTrue(message, ccpValue.isUndef() ||
+                        ccpValue.equals(cpValue));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentMapTest {
+
+    /**
+     * Key with given hash code, so that keys of the same hash code
+     * collide in the trie.
+     */
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void testHashCollisions() {
+        Key a = new Key("a", 42);
+        Key b = new Key("b", 42);
+        Key c = new Key("c", 42);
+        // shares the lowest fragments of the hash with the others
+        Key d = new Key("d", 42 | (1 << 30));
+        PersistentMap<Key, Integer> map = new PersistentMap<>();
+        map.put(a, 1);
+        map.put(b, 2);
+        map.put(c, 3);
+        map.put(d, 4);
+        assertEquals(Map.of(a, 1, b, 2, c, 3, d, 4), map);
+        assertEquals(2, (int) map.put(b, 20));
+        assertEquals(20, (int) map.get(b));
+        assertNull(map.get(new Key("e", 42)));
+        assertFalse(map.containsKey(new Key("e", 42)));
+        assertNull(map.remove(new Key("e", 42)));
+        assertEquals(4, map.size());
+        assertEquals(1, (int) map.remove(a));
+        assertEquals(Map.of(b, 20, c, 3, d, 4), map);
+        assertEquals(3, (int) map.remove(c));
+        assertEquals(Map.of(b, 20, d, 4), map);
+        assertEquals(20, (int) map.remove(b));
+        assertEquals(Map.of(d, 4), map);
+        map.put(a, 1);
+        assertEquals(Map.of(a, 1, d, 4), map);
+    }
+
+    @Test
+    public void testRemoveToEmpty() {
+        Random random = new Random(0);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            keys.add(random.nextInt());
+        }
+        PersistentMap<Integer, Integer> map = new PersistentMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int key : keys) {
+            map.put(key, key * 2);
+            expected.put(key, key * 2);
+        }
+        assertEquals(expected, map);
+        Collections.shuffle(keys, random);
+        for (int key : keys) {
+            assertEquals(expected.remove(key), map.remove(key));
+            assertEquals(expected, map);
+            assertEquals(expected.size(), map.size());
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+        assertEquals(new PersistentMap<>(), map);
+        assertEquals(0, map.hashCode());
+        assertNull(map.remove(keys.get(0)));
+        map.put(1, 1);
+        assertEquals(Map.of(1, 1), map);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        PersistentMap<Integer, Integer> map = new PersistentMap<>();
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, i);
+        }
+        PersistentMap<Integer, Integer> copy = new PersistentMap<>(map);
+        Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(50, map.size());
+        map.forEach((k, v) -> assertTrue(k % 2 == 1));
+        assertEquals(100, copy.size());
+    }
+
+    @Test
+    public void testSharesWithAndSetAll() {
+        PersistentMap<Integer, String> map = new PersistentMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+        PersistentMap<Integer, String> other = new PersistentMap<>();
+        assertFalse(other.sharesWith(map));
+        other.setAll(map);
+        assertTrue(other.sharesWith(map));
+        assertTrue(map.sharesWith(other));
+        assertEquals(map, other);
+        // updates which do not change mappings keep the trie
+        other.put(1, "a");
+        other.remove(3);
+        assertTrue(other.sharesWith(map));
+        other.put(1, "c");
+        assertFalse(other.sharesWith(map));
+        // equal mappings in different tries
+        other.put(1, "a");
+        assertFalse(other.sharesWith(map));
+        assertEquals(map, other);
+        assertEquals(map.hashCode(), other.hashCode());
+        other.clear();
+        assertTrue(other.isEmpty());
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testStructuralSharingAfterCopy() {
+        PersistentMap<Integer, Integer> map = new PersistentMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(i, i);
+        }
+        PersistentMap<Integer, Integer> copy = new PersistentMap<>(map);
+        assertTrue(copy.sharesWith(map));
+        copy.put(0, -1);
+        copy.remove(1);
+        copy.put(1000, 1000);
+        assertFalse(copy.sharesWith(map));
+        // the original map is not affected by the updates of the copy
+        assertEquals(1000, map.size());
+        assertEquals(0, (int) map.get(0));
+        assertEquals(1, (int) map.get(1));
+        assertNull(map.get(1000));
+        assertEquals(1000, copy.size());
+        assertEquals(-1, (int) copy.get(0));
+        assertNull(copy.get(1));
+        assertEquals(1000, (int) copy.get(1000));
+        for (int i = 2; i < 1000; ++i) {
+            assertEquals(map.get(i), copy.get(i));
+        }
+        // nor are the copy by the updates of the original map
+        map.put(2, -2);
+        assertEquals(2, (int) copy.get(2));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+
+/**
+ * Checks that delta propagation ({@link DeltaWorkListSolver}) gives
+ * the same results as full propagation ({@link WorkListSolver}).
+ */
+public class DeltaSolverTest {
+
+    @Test
+    public void testLiveVariables() {
+        LiveVariableAnalysis full = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "propagation", "full"));
+        LiveVariableAnalysis delta = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "propagation", "delta"));
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS,
+                ir -> Tests.assertSameFacts(ir.getResult(CFGBuilder.ID),
+                        full.analyze(ir), delta.analyze(ir)));
+    }
+}
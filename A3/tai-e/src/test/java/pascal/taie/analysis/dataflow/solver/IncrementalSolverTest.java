@@ -0,0 +1,227 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.JumpStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Edits a method of each test program, and checks that solving the edited
+ * method incrementally gives the same result as solving it from scratch.
+ */
+public class IncrementalSolverTest {
+
+    /**
+     * Replaces an assignment of constant by another one, which keeps
+     * the indexes of all statements.
+     */
+    @Test
+    public void testReplaceStmt() {
+        testEdit(true);
+    }
+
+    /**
+     * Inserts an assignment of constant, which shifts the indexes of
+     * subsequent statements (including the exit of the CFG).
+     */
+    @Test
+    public void testInsertStmt() {
+        testEdit(false);
+    }
+
+    /**
+     * Re-solves the replaced statements by the other work-list strategies.
+     */
+    @Test
+    public void testReplaceStmtWithWorkListStrategies() {
+        for (String worklist : List.of("priority", "wto")) {
+            testEdit(true, "worklist", worklist);
+        }
+    }
+
+    @Test
+    public void testReplaceStmtWithDeltaPropagation() {
+        LiveVariableAnalysis liveVars = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "propagation", "delta"));
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            AssignLiteral target = findEditable(ir);
+            if (target != null) {
+                testEdit(liveVars, ir, target, true);
+            }
+        });
+    }
+
+    private static void testEdit(boolean replace, Object... options) {
+        LiveVariableAnalysis liveVars = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        concat(options, "strongly", false)));
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID,
+                        concat(options, "edge-refine", false)));
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            AssignLiteral target = findEditable(ir);
+            if (target == null) {
+                return;
+            }
+            testEdit(liveVars, ir, target, replace);
+            Tests.buildCFG(ir);
+            testEdit(constprop, ir, target, replace);
+        });
+    }
+
+    /**
+     * Solves given IR, edits it, and checks the incremental solving of
+     * the edited IR. Without shifting of indexes, the nodes which are not
+     * reachable from the edit in the direction of the analysis must share
+     * the facts of the previous result, including the entry and exit
+     * of the rebuilt CFG, and must not be visited again.
+     */
+    private static <Fact> void testEdit(AbstractDataflowAnalysis<Stmt, Fact> analysis,
+                                        IR ir, AssignLiteral target, boolean replace) {
+        CFG<Stmt> cfgBefore = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, Fact> before = analysis.analyze(ir);
+        int value = ((IntLiteral) target.getRValue()).getValue();
+        Stmt edit = new AssignLiteral(target.getLValue(), IntLiteral.get(value + 1));
+        IR edited = edit(ir, target, edit, replace);
+        CFG<Stmt> cfg = Tests.buildCFG(edited);
+        Set<Stmt> changed = new HashSet<>();
+        changed.add(edit);
+        changed.addAll(cfg.getPredsOf(edit));
+        changed.addAll(cfg.getSuccsOf(edit));
+        DataflowResult<Stmt, Fact> incremental = analysis.analyze(edited, before, changed);
+        Tests.assertSameFacts(cfg, analysis.analyze(edited), incremental);
+        if (!replace) {
+            return;
+        }
+        Set<Stmt> affected = reachable(cfg, changed, analysis.isForward());
+        for (Stmt node : cfg) {
+            if (affected.contains(node)) {
+                continue;
+            }
+            Stmt previous = cfg.isEntry(node) ? cfgBefore.getEntry()
+                    : cfg.isExit(node) ? cfgBefore.getExit() : node;
+            Assert.assertSame("In fact of " + node + " in " + cfg.getMethod(),
+                    before.getInFact(previous), incremental.getInFact(node));
+            Assert.assertSame("Out fact of " + node + " in " + cfg.getMethod(),
+                    before.getOutFact(previous), incremental.getOutFact(node));
+        }
+        Assert.assertTrue("Incremental solving of " + cfg.getMethod() +
+                        " visits more nodes than solving from scratch",
+                incremental.getMetrics().getPops() <=
+                        analysis.analyze(edited).getMetrics().getPops());
+    }
+
+    /**
+     * @return the nodes reachable from given nodes along the edges
+     * (reversed edges if not forward) of given CFG.
+     */
+    private static Set<Stmt> reachable(CFG<Stmt> cfg, Set<Stmt> nodes,
+                                       boolean forward) {
+        Set<Stmt> reachable = new HashSet<>();
+        Deque<Stmt> workList = new ArrayDeque<>(nodes);
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            if (reachable.add(node)) {
+                workList.addAll(forward ?
+                        cfg.getSuccsOf(node) : cfg.getPredsOf(node));
+            }
+        }
+        return reachable;
+    }
+
+    private static Object[] concat(Object[] options, Object... more) {
+        Object[] result = Arrays.copyOf(options, options.length + more.length);
+        System.arraycopy(more, 0, result, options.length, more.length);
+        return result;
+    }
+
+    /**
+     * @return the first assignment of int constant in given IR which
+     * is not the target of any jump, or null if there is no such
+     * assignment or the IR has exception handlers.
+     */
+    private static AssignLiteral findEditable(IR ir) {
+        if (!ir.getExceptionEntries().isEmpty()) {
+            return null;
+        }
+        Set<Stmt> jumpTargets = new HashSet<>();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof JumpStmt jump) {
+                jumpTargets.addAll(jump.getTargets());
+            }
+        }
+        for (Stmt stmt : ir) {
+            if (stmt instanceof AssignLiteral assign &&
+                    assign.getRValue() instanceof IntLiteral &&
+                    !jumpTargets.contains(assign)) {
+                return assign;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of given IR in which given target statement is
+     * replaced by, or followed by, given statement.
+     */
+    private static IR edit(IR ir, Stmt target, Stmt edit, boolean replace) {
+        List<Stmt> stmts = new ArrayList<>(ir.getStmts());
+        int index = stmts.indexOf(target);
+        if (replace) {
+            stmts.set(index, edit);
+        } else {
+            stmts.add(index + 1, edit);
+        }
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        return new DefaultIR(ir.getMethod(), ir.getThis(), ir.getParams(),
+                new LinkedHashSet<>(ir.getReturnVars()), ir.getVars(),
+                stmts, ir.getExceptionEntries());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Checks the basic blocks and the edges of {@link BlockCFG}.
+ */
+public class BlockCFGTest {
+
+    @Test
+    public void testBlocks() {
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            BlockCFG blockCFG = new BlockCFG(cfg);
+            int size = 0;
+            for (BasicBlock block : blockCFG) {
+                List<Stmt> stmts = block.getStmts();
+                size += stmts.size();
+                for (int i = 0; i < stmts.size(); ++i) {
+                    Stmt stmt = stmts.get(i);
+                    Assert.assertSame(block, blockCFG.getBlockOf(stmt));
+                    Assert.assertEquals(i, blockCFG.getPositionOf(stmt));
+                    if (i > 0) {
+                        // statements of a block form a straight line
+                        Stmt prev = stmts.get(i - 1);
+                        Assert.assertEquals(List.of(stmt),
+                                List.copyOf(cfg.getSuccsOf(prev)));
+                        Assert.assertEquals(List.of(prev),
+                                List.copyOf(cfg.getPredsOf(stmt)));
+                    }
+                }
+            }
+            Assert.assertEquals(cfg.getNumberOfNodes(), size);
+            for (Stmt stmt : cfg) {
+                if (isLeader(cfg, stmt)) {
+                    Assert.assertEquals(stmt + " is a leader",
+                            0, blockCFG.getPositionOf(stmt));
+                }
+            }
+            Assert.assertEquals(List.of(cfg.getEntry()),
+                    blockCFG.getEntry().getStmts());
+            Assert.assertEquals(List.of(cfg.getExit()),
+                    blockCFG.getExit().getStmts());
+        });
+    }
+
+    @Test
+    public void testEdges() {
+        Tests.forEachIR(Tests.DEADCODE_CLASS_PATH, Tests.DEADCODE_PROGRAMS, ir -> {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            BlockCFG blockCFG = new BlockCFG(cfg);
+            for (BasicBlock block : blockCFG) {
+                Stmt last = block.getLastStmt();
+                Assert.assertEquals(cfg.getOutEdgesOf(last).size(),
+                        blockCFG.getOutEdgesOf(block).size());
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(last)) {
+                    BasicBlock target = blockCFG.getBlockOf(edge.getTarget());
+                    Assert.assertSame(edge.getTarget(), target.getFirstStmt());
+                    Assert.assertTrue(blockCFG.getSuccsOf(block).contains(target));
+                    Assert.assertTrue(blockCFG.getPredsOf(target).contains(block));
+                    Assert.assertTrue(edge + " is kept in " + block,
+                            blockCFG.getOutEdgesOf(block).stream().anyMatch(e ->
+                                    e.getTarget() == target &&
+                                            e.getKind() == edge.getKind()));
+                }
+                Stmt first = block.getFirstStmt();
+                Assert.assertEquals(cfg.getInEdgesOf(first).size(),
+                        blockCFG.getInEdgesOf(block).size());
+            }
+        });
+    }
+
+    /**
+     * @return true if given statement must start a basic block.
+     */
+    private static boolean isLeader(CFG<Stmt> cfg, Stmt stmt) {
+        if (cfg.isEntry(stmt) || cfg.isExit(stmt) ||
+                cfg.getPredsOf(stmt).size() != 1) {
+            return true;
+        }
+        Stmt pred = cfg.getPredsOf(stmt).iterator().next();
+        return cfg.isEntry(pred) || cfg.getSuccsOf(pred).size() != 1;
+    }
+}
@@ -48,6 +48,15 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a new CPFact with the mappings of given map.
+     *
+     * @see MapFact#MapFact(Map, boolean)
+     */
+    protected CPFact(Map<Var, Value> map, boolean copy) {
+        super(map, copy);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -73,4 +82,16 @@ public class CPFact extends MapFact<Var, Value> {
     public CPFact copy() {
         return new CPFact(this.map);
     }
+
+    /**
+     * Checks whether this fact is known to have the same content as
+     * given fact without comparing their mappings, e.g., when they share
+     * the same storage. This check is cheap, but a false result
+     * does not imply that the two facts are different.
+     *
+     * @return true if this fact has the same content as given fact.
+     */
+    public boolean isSameAs(CPFact other) {
+        return this == other;
+    }
 }
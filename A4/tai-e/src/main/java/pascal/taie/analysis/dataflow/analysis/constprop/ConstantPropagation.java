@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.ArithmeticExp;
 import pascal.taie.ir.exp.BinaryExp;
@@ -40,13 +41,30 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.util.function.Supplier;
+
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Creates empty facts in the representation specified by option "fact",
+     * i.e., "hybrid" (default) for {@link CPFact}, "persistent"
+     * for {@link PersistentCPFact}, and "array" for {@link ArrayCPFact}.
+     */
+    private final Supplier<CPFact> factFactory;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        String fact = getOptions().getString("fact");
+        factFactory = switch (fact == null ? "hybrid" : fact) {
+            case "hybrid" -> CPFact::new;
+            case "persistent" -> PersistentCPFact::new;
+            case "array" -> ArrayCPFact::new;
+            default -> throw new ConfigException(
+                    "Unknown fact representation of " + ID + ": " + fact);
+        };
     }
 
     @Override
@@ -57,7 +75,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact fact = new CPFact();
+        CPFact fact = factFactory.get();
         var parameters = cfg.getIR().getParams();
         for(Var parameter: parameters)
             if(canHoldInt(parameter))
@@ -69,12 +87,28 @@ public class ConstantPropagation extends
     @Override
     public CPFact newInitialFact() {
         // TODO - finish me
-        return new CPFact();
+        return factFactory.get();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        if (fact instanceof ArrayCPFact arrayFact &&
+                target instanceof ArrayCPFact arrayTarget) {
+            arrayTarget.meet(arrayFact);
+            return;
+        }
+        if (target.isSameAs(fact)) {
+            // meeting a fact with itself changes nothing
+            return;
+        }
+        if (target.keySet().isEmpty()) {
+            // all variables in target are UNDEF, and meeting UNDEF with
+            // any value gives the value, thus the result is just fact,
+            // which may share storage with fact
+            target.copyFrom(fact);
+            return;
+        }
         for(Var var: fact.keySet())
             target.update(var, meetValue(target.get(var), fact.get(var)));
     }
@@ -101,6 +135,10 @@ public class ConstantPropagation extends
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
+        if (in instanceof ArrayCPFact arrayIn &&
+                out instanceof ArrayCPFact arrayOut) {
+            return transferPacked(stmt, arrayIn, arrayOut);
+        }
         var temp = in.copy();
         if(stmt instanceof DefinitionStmt<?,?>)
         {
@@ -117,6 +155,26 @@ public class ConstantPropagation extends
         return out.copyFrom(temp);
     }
 
+    /**
+     * Same as {@link #transferNode(Stmt, CPFact, CPFact)}, but works on
+     * the packed values of {@link ArrayCPFact}s without copying in fact.
+     */
+    private static boolean transferPacked(Stmt stmt, ArrayCPFact in, ArrayCPFact out) {
+        Var lhs = null;
+        long value = ArrayCPFact.UNDEF;
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var && canHoldInt(var) &&
+                def.getRValue() != null) {
+            lhs = var;
+            value = evaluatePacked(def.getRValue(), in);
+        }
+        boolean changed = out.copyFromExcept(in, lhs);
+        if (lhs != null && !ArrayCPFact.isUndef(value)) {
+            changed |= out.updatePacked(lhs, value);
+        }
+        return changed;
+    }
+
     /**
      * @return true if the given variable can hold integer value, otherwise false.
      */
@@ -166,50 +224,93 @@ public class ConstantPropagation extends
             if(value1.isNAC() || value2.isNAC())
                 return Value.getNAC();
             else if(value1.isConstant() && value2.isConstant()) {
-                var constant1 = value1.getConstant();
-                var constant2 = value2.getConstant();
-                if (exp instanceof ArithmeticExp) {
-                    var op = ((ArithmeticExp) exp).getOperator();
-
-                    return switch (op) {
-                        case ADD -> Value.makeConstant(constant1 + constant2);
-                        case MUL -> Value.makeConstant(constant1 * constant2);
-                        case SUB -> Value.makeConstant(constant1 - constant2);
-                        case DIV -> Value.makeConstant(constant1 / constant2);
-                        case REM -> Value.makeConstant(constant1 % constant2);
-                    };
-                } else if(exp instanceof BitwiseExp){
-                    var op = ((BitwiseExp) exp).getOperator();
-
-                    return switch (op) {
-                        case OR -> Value.makeConstant(constant1 | constant2);
-                        case AND -> Value.makeConstant(constant1 & constant2);
-                        case XOR -> Value.makeConstant(constant1 ^ constant2);
-                    };
-                } else if (exp instanceof ConditionExp) {
-                    var op = ((ConditionExp) exp).getOperator();
-                    int ret = switch (op) {
-                        case EQ -> constant1 == constant2 ? 1 : 0;
-                        case GE -> constant1 >= constant2 ? 1 : 0;
-                        case GT -> constant1 > constant2 ? 1 : 0;
-                        case LE -> constant1 <= constant2 ? 1 : 0;
-                        case LT -> constant1 < constant2 ? 1 : 0;
-                        case NE -> constant1 != constant2 ? 1 : 0;
-                    };
-                    return Value.makeConstant(ret);
-                } else if (exp instanceof ShiftExp) {
-                    var op = ((ShiftExp) exp).getOperator();
-                    return switch (op) {
-                        case SHL -> Value.makeConstant(constant1 << constant2);
-                        case SHR -> Value.makeConstant(constant1 >> constant2);
-                        case USHR -> Value.makeConstant(constant1 >>> constant2);
-                    };
-                }
-
+                return Value.makeConstant(fold((BinaryExp) exp,
+                        value1.getConstant(), value2.getConstant()));
             }
             else return Value.getUndef();
         }
 
         return Value.getNAC();
     }
+
+    /**
+     * Evaluates the packed value of given expression like
+     * {@link #evaluate(Exp, CPFact)}, which allocates no objects.
+     *
+     * @param exp the expression to be evaluated
+     * @param in  IN fact of the statement
+     * @return the resulting packed value
+     */
+    public static long evaluatePacked(Exp exp, ArrayCPFact in) {
+        if (exp instanceof Var var) {
+            return in.getPacked(var);
+        } else if (exp instanceof IntLiteral literal) {
+            return ArrayCPFact.makeConstant(literal.getValue());
+        } else if (exp instanceof BinaryExp binary) {
+            long value1 = in.getPacked(binary.getOperand1());
+            long value2 = in.getPacked(binary.getOperand2());
+            if (binary instanceof ArithmeticExp arithmetic &&
+                    ArrayCPFact.isConstant(value2) &&
+                    ArrayCPFact.getConstant(value2) == 0) {
+                var op = arithmetic.getOperator();
+                if (op == ArithmeticExp.Op.DIV || op == ArithmeticExp.Op.REM) {
+                    return ArrayCPFact.UNDEF;
+                }
+            }
+            if (ArrayCPFact.isNAC(value1) || ArrayCPFact.isNAC(value2)) {
+                return ArrayCPFact.NAC;
+            } else if (ArrayCPFact.isConstant(value1) &&
+                    ArrayCPFact.isConstant(value2)) {
+                return ArrayCPFact.makeConstant(fold(binary,
+                        ArrayCPFact.getConstant(value1),
+                        ArrayCPFact.getConstant(value2)));
+            } else {
+                return ArrayCPFact.UNDEF;
+            }
+        }
+        return ArrayCPFact.NAC;
+    }
+
+    /**
+     * @return the result of applying the operator of given expression
+     * to two constant operands.
+     */
+    private static int fold(BinaryExp exp, int constant1, int constant2) {
+        if (exp instanceof ArithmeticExp) {
+            var op = ((ArithmeticExp) exp).getOperator();
+            return switch (op) {
+                case ADD -> constant1 + constant2;
+                case MUL -> constant1 * constant2;
+                case SUB -> constant1 - constant2;
+                case DIV -> constant1 / constant2;
+                case REM -> constant1 % constant2;
+            };
+        } else if (exp instanceof BitwiseExp) {
+            var op = ((BitwiseExp) exp).getOperator();
+            return switch (op) {
+                case OR -> constant1 | constant2;
+                case AND -> constant1 & constant2;
+                case XOR -> constant1 ^ constant2;
+            };
+        } else if (exp instanceof ConditionExp) {
+            var op = ((ConditionExp) exp).getOperator();
+            boolean result = switch (op) {
+                case EQ -> constant1 == constant2;
+                case GE -> constant1 >= constant2;
+                case GT -> constant1 > constant2;
+                case LE -> constant1 <= constant2;
+                case LT -> constant1 < constant2;
+                case NE -> constant1 != constant2;
+            };
+            return result ? 1 : 0;
+        } else if (exp instanceof ShiftExp) {
+            var op = ((ShiftExp) exp).getOperator();
+            return switch (op) {
+                case SHL -> constant1 << constant2;
+                case SHR -> constant1 >> constant2;
+                case USHR -> constant1 >>> constant2;
+            };
+        }
+        throw new AnalysisException("Unexpected binary expression: " + exp);
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMap;
+import pascal.taie.ir.exp.Var;
+
+/**
+ * {@link CPFact} whose mappings are held in a {@link PersistentMap}.
+ * <p>
+ * Copying such a fact takes constant time, and the copy shares storage
+ * with the original fact until either of them is updated; an update only
+ * copies the path to the updated variable in the underlying trie.
+ * Thus, the facts along straight-line code, which mostly differ in
+ * a few variables, share most of their storage.
+ */
+public class PersistentCPFact extends CPFact {
+
+    /**
+     * The same map as {@link #map}.
+     */
+    private final PersistentMap<Var, Value> pmap;
+
+    public PersistentCPFact() {
+        this(new PersistentMap<>());
+    }
+
+    private PersistentCPFact(PersistentMap<Var, Value> pmap) {
+        super(pmap, false);
+        this.pmap = pmap;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof PersistentCPFact that) {
+            if (pmap.sharesWith(that.pmap)) {
+                return false;
+            }
+            if (pmap.isEmpty()) {
+                pmap.setAll(that.pmap);
+                return true;
+            }
+            boolean changed = super.copyFrom(fact);
+            if (pmap.size() == that.pmap.size()) {
+                // this fact now has exactly the mappings of given fact,
+                // thus can share storage with it
+                pmap.setAll(that.pmap);
+            }
+            return changed;
+        }
+        return super.copyFrom(fact);
+    }
+
+    @Override
+    public PersistentCPFact copy() {
+        return new PersistentCPFact(new PersistentMap<>(pmap));
+    }
+
+    @Override
+    public boolean isSameAs(CPFact other) {
+        return this == other || (other instanceof PersistentCPFact that
+                && pmap.sharesWith(that.pmap));
+    }
+}
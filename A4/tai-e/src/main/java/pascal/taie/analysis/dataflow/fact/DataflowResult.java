@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -37,6 +39,13 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
     private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
 
+    private SolverMetrics metrics;
+
+    /**
+     * Whether the facts of this result can no longer be replaced.
+     */
+    private boolean frozen;
+
     /**
      * @return the flowing-in fact of given node.
      */
@@ -49,6 +58,7 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
+        checkNotFrozen();
         inFacts.put(node, fact);
     }
 
@@ -64,6 +74,45 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
     public void setOutFact(Node node, Fact fact) {
+        checkNotFrozen();
         outFacts.put(node, fact);
     }
+
+    /**
+     * Freezes this result, so that its facts can no longer be replaced
+     * by {@link #setInFact} and {@link #setOutFact}. This is called when
+     * the facts of this result are interned (see {@link FactInterner}).
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * @return true if this result is frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if this result is frozen.
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException(
+                    "Facts of a frozen data-flow result cannot be replaced");
+        }
+    }
+
+    /**
+     * @return the metrics of the solving which computed this result,
+     * or null if this result was not computed by a solver.
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
@@ -51,7 +51,20 @@ public class MapFact<K, V> {
      * @param map the map whose mappings are to be placed in this map.
      */
     public MapFact(Map<K, V> map) {
-        this.map = Maps.newHybridMap(map);
+        this(map, true);
+    }
+
+    /**
+     * Constructs a new MapFact with the mappings of specified Map.
+     *
+     * @param map  the map whose mappings are to be placed in this map.
+     * @param copy if true, the mappings are copied into a new map;
+     *             otherwise, given map is used as the backing map of
+     *             this fact, which allows subclasses to hold mappings
+     *             in specialized map implementations.
+     */
+    protected MapFact(Map<K, V> map, boolean copy) {
+        this.map = copy ? Maps.newHybridMap(map) : map;
     }
 
     /**
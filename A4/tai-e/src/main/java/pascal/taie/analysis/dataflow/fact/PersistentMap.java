@@ -0,0 +1,547 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Map whose mappings are held in an immutable hash array mapped trie.
+ * <p>
+ * The map itself is mutable, but an update never modifies the trie in place;
+ * instead, it replaces the trie by a new one which copies the nodes on
+ * the path to the updated key and shares all other nodes with the old trie.
+ * Thus, {@link #PersistentMap(PersistentMap) copying} a map takes constant
+ * time, and the maps copied from each other share storage until they are
+ * updated. An update that does not change the mapping of the key keeps
+ * the trie as is, so whether two maps hold the same trie, which is checked
+ * by {@link #sharesWith(PersistentMap)}, tells cheaply that they have
+ * the same mappings.
+ * <p>
+ * This map does not permit null keys.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Maximum depth of the trie, i.e., the levels of bitmap nodes
+     * for 32-bit hashes plus one level of collision nodes.
+     */
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    private static final Object NOT_FOUND = new Object();
+
+    /**
+     * Root of the trie, or null if this map is empty.
+     */
+    private Node root;
+
+    private int size;
+
+    /**
+     * The value which was associated with the key of the last update,
+     * set by the nodes during the update.
+     */
+    private Object oldValue;
+
+    /**
+     * Whether the last update added or removed a key,
+     * set by the nodes during the update.
+     */
+    private boolean sizeChanged;
+
+    public PersistentMap() {
+    }
+
+    /**
+     * Constructs a new map with the same mappings as given map,
+     * which shares the trie with given map. This takes constant time.
+     */
+    public PersistentMap(PersistentMap<K, V> m) {
+        this.root = m.root;
+        this.size = m.size;
+    }
+
+    /**
+     * @return true if this map and given map hold the same trie, which
+     * implies that they have the same mappings. Note that two maps
+     * may have the same mappings even if this method returns false.
+     */
+    public boolean sharesWith(PersistentMap<?, ?> other) {
+        return root == other.root;
+    }
+
+    /**
+     * Replaces all mappings of this map by the ones of given map,
+     * and shares the trie with given map. This takes constant time.
+     */
+    public void setAll(PersistentMap<K, V> other) {
+        root = other.root;
+        size = other.size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root != null && root.find(hash(key), key, 0) != NOT_FOUND;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        if (root == null) {
+            return null;
+        }
+        Object value = root.find(hash(key), key, 0);
+        return value != NOT_FOUND ? (V) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        oldValue = null;
+        sizeChanged = false;
+        root = (root == null ? BitmapNode.EMPTY : root)
+                .put(hash(key), key, value, 0, this);
+        if (sizeChanged) {
+            ++size;
+        }
+        V old = (V) oldValue;
+        oldValue = null;
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        if (root == null) {
+            return null;
+        }
+        oldValue = null;
+        sizeChanged = false;
+        root = root.remove(hash(key), key, 0, this);
+        if (sizeChanged) {
+            --size;
+        }
+        V old = (V) oldValue;
+        oldValue = null;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PersistentMap<?, ?> that && sharesWith(that)) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int fragment(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    /**
+     * @return a copy of given array in which the element at given index
+     * is replaced by given element.
+     */
+    private static Object[] with(Object[] array, int i, Object e) {
+        Object[] result = array.clone();
+        result[i] = e;
+        return result;
+    }
+
+    /**
+     * Node of the trie. The array of a node holds key-value pairs, i.e.,
+     * array[2i] and array[2i + 1] are the key and the value of a pair.
+     * The key of a pair in a {@link BitmapNode} may be null, which means
+     * that the value is a sub-node.
+     */
+    private abstract static class Node {
+
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        /**
+         * @return the value associated with given key, or NOT_FOUND
+         * if this node does not contain the key.
+         */
+        abstract Object find(int hash, Object key, int shift);
+
+        /**
+         * @return the node which contains the mappings of this node and
+         * the given mapping, or this node if the mapping is already in it.
+         */
+        abstract Node put(int hash, Object key, Object value, int shift,
+                          PersistentMap<?, ?> m);
+
+        /**
+         * @return the node which contains the mappings of this node except
+         * the one of given key, this node if it does not contain the key,
+         * or null if the resulting node is empty.
+         */
+        abstract Node remove(int hash, Object key, int shift,
+                             PersistentMap<?, ?> m);
+
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) {
+                    action.accept(array[i], array[i + 1]);
+                } else {
+                    ((Node) array[i + 1]).forEach(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Node whose pairs are indexed by the bitmap of the hash fragments
+     * at the level of the node.
+     */
+    private static class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int hash, Object key, int shift) {
+            int bit = 1 << fragment(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = 2 * indexOf(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(hash, key, shift + BITS);
+            }
+            return k.equals(key) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift,
+                 PersistentMap<?, ?> m) {
+            int bit = 1 << fragment(hash, shift);
+            int i = 2 * indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                m.sizeChanged = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(hash, key, value, shift + BITS, m);
+                return newChild == child ? this :
+                        new BitmapNode(bitmap, with(array, i + 1, newChild));
+            }
+            if (k.equals(key)) {
+                m.oldValue = v;
+                return Objects.equals(v, value) ? this :
+                        new BitmapNode(bitmap, with(array, i + 1, value));
+            }
+            m.sizeChanged = true;
+            Object[] newArray = with(array, i, null);
+            newArray[i + 1] = merge(shift + BITS, k, v, hash, key, value);
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift, PersistentMap<?, ?> m) {
+            int bit = 1 << fragment(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * indexOf(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.remove(hash, key, shift + BITS, m);
+                if (newChild == child) {
+                    return this;
+                } else if (newChild != null) {
+                    return new BitmapNode(bitmap, with(array, i + 1, newChild));
+                }
+            } else if (k.equals(key)) {
+                m.oldValue = array[i + 1];
+                m.sizeChanged = true;
+            } else {
+                return this;
+            }
+            // remove the pair at i
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        /**
+         * @return a node at given level which contains the two given
+         * mappings of different keys.
+         */
+        private static Node merge(int shift, Object k1, Object v1,
+                                  int hash2, Object k2, Object v2) {
+            int hash1 = hash(k1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{ k1, v1, k2, v2 });
+            }
+            // two different hashes must differ in some fragment at or
+            // below level (Integer.SIZE - 1) / BITS, thus this terminates
+            int f1 = fragment(hash1, shift);
+            int f2 = fragment(hash2, shift);
+            if (f1 == f2) {
+                return new BitmapNode(1 << f1, new Object[]{
+                        null, merge(shift + BITS, k1, v1, hash2, k2, v2) });
+            }
+            Object[] array = f1 < f2 ?
+                    new Object[]{ k1, v1, k2, v2 } :
+                    new Object[]{ k2, v2, k1, v1 };
+            return new BitmapNode((1 << f1) | (1 << f2), array);
+        }
+    }
+
+    /**
+     * Node which holds the pairs of the keys with the same hash.
+     */
+    private static class CollisionNode extends Node {
+
+        private final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int hash, Object key, int shift) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            int i = indexOf(key);
+            return i >= 0 ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(int hash, Object key, Object value, int shift,
+                 PersistentMap<?, ?> m) {
+            if (hash != this.hash) {
+                // nest this node in a bitmap node of current level
+                return new BitmapNode(1 << fragment(this.hash, shift),
+                        new Object[]{ null, this })
+                        .put(hash, key, value, shift, m);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                m.oldValue = array[i + 1];
+                return Objects.equals(array[i + 1], value) ? this :
+                        new CollisionNode(hash, with(array, i + 1, value));
+            }
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            m.sizeChanged = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(int hash, Object key, int shift, PersistentMap<?, ?> m) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            m.oldValue = array[i + 1];
+            m.sizeChanged = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+
+    /**
+     * Iterates over the trie which this map holds when the iterator
+     * is created, so removing entries via the iterator (which updates
+     * this map) does not affect the iteration.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+        private final int[] positions = new int[MAX_DEPTH];
+
+        private int depth;
+
+        private Entry<K, V> next;
+
+        private K lastKey;
+
+        private EntryIterator() {
+            if (root != null) {
+                arrays[0] = root.array;
+                depth = 0;
+            } else {
+                depth = -1;
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int p = positions[depth];
+                if (p == array.length) {
+                    --depth;
+                    continue;
+                }
+                positions[depth] = p + 2;
+                if (array[p] != null) {
+                    next = new SimpleImmutableEntry<>((K) array[p], (V) array[p + 1]);
+                    return;
+                }
+                ++depth;
+                arrays[depth] = ((Node) array[p + 1]).array;
+                positions[depth] = 0;
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            lastKey = result.getKey();
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PersistentMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
@@ -121,7 +121,8 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = new InterSolver<>(this, icfg,
+                getOptions().getBooleanOrDefault("intern", false));
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
@@ -51,7 +51,12 @@ public class InterConstantPropagation extends
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
-        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        // facts of inter-procedural constant propagation are created by cp,
+        // thus option "fact" is passed to it
+        String fact = getOptions().getString("fact");
+        cp = new ConstantPropagation(fact == null ?
+                new AnalysisConfig(ConstantPropagation.ID) :
+                new AnalysisConfig(ConstantPropagation.ID, "fact", fact));
     }
 
     @Override
@@ -108,7 +113,7 @@ public class InterConstantPropagation extends
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
         assert edge.getSource() instanceof Invoke;
-        CPFact ret = new CPFact();
+        CPFact ret = cp.newInitialFact();
         InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
         var formalArgs = edge.getCallee().getIR().getParams();
         var practiceArgs = invokeExp.getArgs();
@@ -123,7 +128,7 @@ public class InterConstantPropagation extends
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
         // TODO - finish me
-        var retFact = new CPFact();
+        var retFact = cp.newInitialFact();
         var returnVar = edge.getReturnVars();
         var callSite = edge.getCallSite();
         assert callSite instanceof Invoke;
@@ -23,6 +23,8 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.SetQueue;
@@ -43,20 +45,35 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    /**
+     * Whether the facts of the result are interned after the solving.
+     */
+    private final boolean intern;
+
     private DataflowResult<Node, Fact> result;
 
     private Queue<Node> workList;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, boolean intern) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.intern = intern;
     }
 
     DataflowResult<Node, Fact> solve() {
+        long start = System.nanoTime();
         result = new DataflowResult<>();
+        result.setMetrics(new SolverMetrics());
         initialize();
         doSolve();
+        if (intern) {
+            FactInterner<Fact> interner = new FactInterner<>();
+            interner.intern(result, icfg);
+            result.getMetrics().setInterning(
+                    interner.getInternedFacts(), interner.getUniqueFacts());
+        }
+        result.getMetrics().setTime(System.nanoTime() - start);
         return result;
     }
 
@@ -82,14 +99,20 @@ class InterSolver<Method, Node, Fact> {
         for(Node node: icfg)
             workList.add(node);
 
+        SolverMetrics metrics = result.getMetrics();
         while (!workList.isEmpty()){
             var node = workList.remove();
+            metrics.countPop();
             var in = result.getInFact(node);
             for(var e: icfg.getInEdgesOf(node)){
                 var pre = e.getSource();
                 analysis.meetInto(analysis.transferEdge(e, result.getOutFact(pre)), in);
+                metrics.countMeet();
             }
-            if(analysis.transferNode(node, in, result.getOutFact(node))){
+            var out = result.getOutFact(node);
+            boolean changed = analysis.transferNode(node, in, out);
+            metrics.countTransfer(changed, out);
+            if(changed){
                 for(Node n: icfg.getSuccsOf(node))
                     if(!workList.contains(n))
                         workList.add(n);
@@ -53,11 +53,14 @@ public abstract class Solver<Node, Fact> {
      * Starts this solver on the given CFG.
      *
      * @param cfg control-flow graph where the analysis is performed on
-     * @return the analysis result
+     * @return the analysis result, which carries the {@link SolverMetrics}
+     * of the solving
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        long start = System.nanoTime();
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
+        result.getMetrics().setTime(System.nanoTime() - start);
         return result;
     }
 
@@ -68,6 +71,7 @@ public abstract class Solver<Node, Fact> {
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = new DataflowResult<>();
+        result.setMetrics(new SolverMetrics());
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
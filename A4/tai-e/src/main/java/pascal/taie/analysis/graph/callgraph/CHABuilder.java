@@ -25,6 +25,7 @@ package pascal.taie.analysis.graph.callgraph;
 import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
@@ -32,18 +33,53 @@ import pascal.taie.language.classes.Subsignature;
 import soot.jimple.internal.JCastExpr;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * Implementation of the CHA algorithm.
+ * <p>
+ * In parallel mode, the reachable methods are first discovered on a
+ * {@link ForkJoinPool}: each method is claimed by exactly one task via
+ * a concurrent reachable set, which resolves the callees of all call
+ * sites in the method and forks a task for each newly reachable callee.
+ * Then the call graph is built from the resolved callees in the same
+ * order as the sequential mode, so that the two modes produce identical
+ * call graphs, while the expensive parts (building IR and resolving
+ * call sites) are done concurrently.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    private HierarchyIndex index;
+
+    /**
+     * Number of threads of the pool in parallel mode (0 for the number of
+     * available processors), or -1 for sequential mode.
+     */
+    private final int threads;
+
+    CHABuilder() {
+        this(-1);
+    }
+
+    CHABuilder(int threads) {
+        this.threads = threads;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        index = new HierarchyIndex(hierarchy);
+        JMethod entry = World.get().getMainMethod();
+        if (threads < 0) {
+            return buildCallGraph(entry, this::resolve);
+        } else {
+            return buildCallGraph(entry, resolveInParallel(entry)::get);
+        }
     }
 
     private CallKind getCallKind(Invoke callSite)
@@ -61,11 +97,16 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return null;
 
     }
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    /**
+     * Builds call graph from given entry, where the callees of each call
+     * site are given by {@code resolver}.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraph(
+            JMethod entry, Function<Invoke, Set<JMethod>> resolver) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         // TODO - finish me
-        LinkedList<JMethod> workList = new LinkedList<>();
+        ArrayDeque<JMethod> workList = new ArrayDeque<>();
         workList.add(entry);
         while (!workList.isEmpty())
         {
@@ -74,9 +115,12 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
             {
                 callGraph.addReachableMethod(jMethod);
                 callGraph.callSitesIn(jMethod).forEach((callSite)->{
-                            for(var callee: resolve(callSite))
+                            for(var callee: resolver.apply(callSite))
                             {
-                                workList.add(callee);
+                                // a reachable callee has been (or is being)
+                                // processed, thus needs no re-enqueuing
+                                if(!callGraph.contains(callee))
+                                    workList.add(callee);
                                 callGraph.addEdge(new Edge<>(getCallKind(callSite), callSite, callee));
                             }
                         }
@@ -86,6 +130,70 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Resolves the callees of all call sites in the methods reachable from
+     * given entry on a {@link ForkJoinPool}.
+     *
+     * @return a map from each call site in the reachable methods to
+     * its callees.
+     */
+    private Map<Invoke, Set<JMethod>> resolveInParallel(JMethod entry) {
+        Set<JMethod> reachable = ConcurrentHashMap.newKeySet();
+        Map<Invoke, Set<JMethod>> callees = new ConcurrentHashMap<>();
+        ForkJoinPool pool = threads > 0 ?
+                new ForkJoinPool(threads) : new ForkJoinPool();
+        try {
+            reachable.add(entry);
+            pool.invoke(new Expansion(null, entry, reachable, callees));
+        } finally {
+            pool.shutdown();
+        }
+        return callees;
+    }
+
+    /**
+     * Task which resolves the call sites in a reachable method, and forks
+     * a subtask for each callee that becomes reachable for the first time.
+     * The root task completes when all its (transitive) subtasks complete.
+     */
+    @SuppressWarnings("serial")
+    private class Expansion extends CountedCompleter<Void> {
+
+        private final JMethod method;
+
+        private final Set<JMethod> reachable;
+
+        private final Map<Invoke, Set<JMethod>> callees;
+
+        private Expansion(CountedCompleter<?> parent, JMethod method,
+                          Set<JMethod> reachable, Map<Invoke, Set<JMethod>> callees) {
+            super(parent);
+            this.method = method;
+            this.reachable = reachable;
+            this.callees = callees;
+        }
+
+        @Override
+        public void compute() {
+            // same as DefaultCallGraph.addReachableMethod()
+            if (!method.isAbstract()) {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof Invoke callSite) {
+                        Set<JMethod> targets = resolve(callSite);
+                        callees.put(callSite, targets);
+                        for (JMethod callee : targets) {
+                            if (callee != null && reachable.add(callee)) {
+                                addToPendingCount(1);
+                                new Expansion(this, callee, reachable, callees).fork();
+                            }
+                        }
+                    }
+                }
+            }
+            tryComplete();
+        }
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
@@ -98,35 +206,23 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         var callKind = CallGraphs.getCallKind(callSite);
         if(callKind == CallKind.STATIC)
         {
+            // the target may be absent, e.g., in a phantom class,
+            // and such call site has no callees
             var staticMethod = declaredClass.getDeclaredMethod(subSignature);
-            assert staticMethod != null;
-            set.add(staticMethod);
+            if(staticMethod != null)
+                set.add(staticMethod);
         }
         else if(callKind == CallKind.SPECIAL)
         {
             var specialMethod = dispatch(declaredClass, subSignature);
-            assert specialMethod != null;
-            set.add(specialMethod);
+            if(specialMethod != null)
+                set.add(specialMethod);
         }
         else if(callKind == CallKind.VIRTUAL || callKind == CallKind.INTERFACE)
         {
-            LinkedList<JClass> list = new LinkedList<>();
-            list.add(declaredClass);
-            while (!list.isEmpty()){
-                var jClass = list.removeFirst();
-                var res = dispatch(jClass, subSignature);
-                if(res != null)
-                    set.add(res);
-
-                if(jClass.isInterface())
-                {
-                    list.addAll(hierarchy.getDirectSubinterfacesOf(jClass));
-                    list.addAll(hierarchy.getDirectImplementorsOf(jClass));
-                }
-                else
-                    list.addAll(hierarchy.getDirectSubclassesOf(jClass));
-
-            }
+            // the targets are resolved once per pair of declared class
+            // and subsignature, and shared by all such call sites
+            return index.resolveVirtual(declaredClass, subSignature);
         }
         else
             assert false;
@@ -141,15 +237,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        var method = jclass.getDeclaredMethod(subsignature);
-        if(method != null && !method.isAbstract())
-            return method;
-        else{
-            if(jclass.getSuperClass() == null)
-                return null;
-            else
-                return dispatch(jclass.getSuperClass(), subsignature);
-        }
-
+        return index.dispatch(jclass, subsignature);
     }
 }
@@ -0,0 +1,457 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) representation.
+ * <p>
+ * The reachable methods and call sites are numbered densely, and
+ * the relations between them are stored in flat int arrays instead of
+ * maps of {@link Edge} objects:
+ * <ul>
+ *     <li>the call sites in method {@code m} are
+ *     {@code callSites[callSiteStart[m] .. callSiteStart[m + 1])};</li>
+ *     <li>the call edges out of call site {@code c} are the edges whose
+ *     ids are in {@code [edgeStart[c], edgeStart[c + 1])}, and
+ *     the callee and kind of edge {@code e} are {@code callees[e]} and
+ *     {@code kinds[e]};</li>
+ *     <li>the call edges into method {@code m} are
+ *     {@code inEdges[inEdgeStart[m] .. inEdgeStart[m + 1])}.</li>
+ * </ul>
+ * An edge costs a few bytes instead of several map entries and an
+ * {@link Edge} object, which are created only when being queried.
+ * <p>
+ * A {@link CSRCallGraph} is created by {@link #freeze(CallGraph)} from
+ * a built call graph, and preserves the orders of reachable methods,
+ * call sites and edges of that call graph.
+ */
+public final class CSRCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] CALL_KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final IdMap<JMethod> methodIds;
+
+    private final int[] entries;
+
+    private final int[] callSiteStart;
+
+    private final Invoke[] callSites;
+
+    private final IdMap<Invoke> callSiteIds;
+
+    /**
+     * Id of the method containing each call site.
+     */
+    private final int[] containers;
+
+    private final int[] edgeStart;
+
+    private final int[] callees;
+
+    private final byte[] kinds;
+
+    /**
+     * Id of the call site of each edge.
+     */
+    private final int[] edgeSources;
+
+    private final int[] inEdgeStart;
+
+    private final int[] inEdges;
+
+    CSRCallGraph(JMethod[] methods, int[] entries,
+                 int[] callSiteStart, Invoke[] callSites,
+                 int[] edgeStart, int[] callees, byte[] kinds) {
+        this.methods = methods;
+        this.methodIds = new IdMap<>(methods);
+        this.entries = entries;
+        this.callSiteStart = callSiteStart;
+        this.callSites = callSites;
+        this.callSiteIds = new IdMap<>(callSites);
+        this.containers = new int[callSites.length];
+        for (int m = 0; m < methods.length; ++m) {
+            Arrays.fill(containers, callSiteStart[m], callSiteStart[m + 1], m);
+        }
+        this.edgeStart = edgeStart;
+        this.callees = callees;
+        this.kinds = kinds;
+        this.edgeSources = new int[callees.length];
+        for (int c = 0; c < callSites.length; ++c) {
+            Arrays.fill(edgeSources, edgeStart[c], edgeStart[c + 1], c);
+        }
+        // group the edges by their callees via counting sort,
+        // which keeps the edges into each method in the order of edge ids
+        this.inEdgeStart = new int[methods.length + 1];
+        for (int callee : callees) {
+            ++inEdgeStart[callee + 1];
+        }
+        for (int m = 0; m < methods.length; ++m) {
+            inEdgeStart[m + 1] += inEdgeStart[m];
+        }
+        this.inEdges = new int[callees.length];
+        int[] next = Arrays.copyOf(inEdgeStart, methods.length);
+        for (int e = 0; e < callees.length; ++e) {
+            inEdges[next[callees[e]]++] = e;
+        }
+    }
+
+    /**
+     * Converts given call graph to a {@link CSRCallGraph}.
+     *
+     * @throws IllegalArgumentException if the call graph has an entry
+     *                                  method or callee that is not reachable.
+     */
+    public static CSRCallGraph freeze(CallGraph<Invoke, JMethod> callGraph) {
+        if (callGraph instanceof CSRCallGraph csr) {
+            return csr;
+        }
+        JMethod[] methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        IdMap<JMethod> methodIds = new IdMap<>(methods);
+        int[] entries = callGraph.entryMethods()
+                .mapToInt(entry -> idOf(methodIds, entry))
+                .toArray();
+        int[] callSiteStart = new int[methods.length + 1];
+        List<Invoke> callSites = new ArrayList<>();
+        for (int m = 0; m < methods.length; ++m) {
+            callSiteStart[m] = callSites.size();
+            callGraph.callSitesIn(methods[m]).forEach(callSites::add);
+        }
+        callSiteStart[methods.length] = callSites.size();
+        int[] edgeStart = new int[callSites.size() + 1];
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (int c = 0; c < callSites.size(); ++c) {
+            edgeStart[c] = edges.size();
+            callGraph.edgesOutOf(callSites.get(c)).forEach(edges::add);
+        }
+        edgeStart[callSites.size()] = edges.size();
+        int[] callees = new int[edges.size()];
+        byte[] kinds = new byte[edges.size()];
+        for (int e = 0; e < edges.size(); ++e) {
+            callees[e] = idOf(methodIds, edges.get(e).getCallee());
+            kinds[e] = (byte) edges.get(e).getKind().ordinal();
+        }
+        return new CSRCallGraph(methods, entries,
+                callSiteStart, callSites.toArray(Invoke[]::new),
+                edgeStart, callees, kinds);
+    }
+
+    private static int idOf(IdMap<JMethod> methodIds, JMethod method) {
+        int id = methodIds.get(method);
+        if (id < 0) {
+            throw new IllegalArgumentException(method + " is not reachable");
+        }
+        return id;
+    }
+
+    private Edge<Invoke, JMethod> edgeOf(int e) {
+        return new Edge<>(CALL_KINDS[kinds[e]],
+                callSites[edgeSources[e]], methods[callees[e]]);
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int m = methodIds.get(callee);
+        return m < 0 ? Set.of() : new RangeSet<>(inEdgeStart[m], inEdgeStart[m + 1],
+                i -> callSites[edgeSources[inEdges[i]]]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int c = callSiteIds.get(callSite);
+        return c < 0 ? Set.of() : new RangeSet<>(edgeStart[c], edgeStart[c + 1],
+                e -> methods[callees[e]]);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return succIdsOf(caller)
+                .mapToObj(m -> methods[m])
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return ids of the distinct callees of all call sites in given method.
+     */
+    private IntStream succIdsOf(JMethod caller) {
+        int m = methodIds.get(caller);
+        return m < 0 ? IntStream.empty() :
+                IntStream.range(edgeStart[callSiteStart[m]], edgeStart[callSiteStart[m + 1]])
+                        .map(e -> callees[e])
+                        .distinct();
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        int c = callSiteIds.get(callSite);
+        return c < 0 ? null : methods[containers[c]];
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int m = methodIds.get(method);
+        return m < 0 ? Set.of() : new RangeSet<>(callSiteStart[m], callSiteStart[m + 1],
+                c -> callSites[c]);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int c = callSiteIds.get(callSite);
+        return c < 0 ? Stream.of() :
+                IntStream.range(edgeStart[c], edgeStart[c + 1]).mapToObj(this::edgeOf);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = methodIds.get(method);
+        return m < 0 ? Stream.of() :
+                IntStream.range(inEdgeStart[m], inEdgeStart[m + 1])
+                        .mapToObj(i -> edgeOf(inEdges[i]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, callees.length).mapToObj(this::edgeOf);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return callees.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entries).mapToObj(m -> methods[m]);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.get(method) >= 0;
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int s = methodIds.get(source);
+        int t = methodIds.get(target);
+        if (s < 0 || t < 0) {
+            return false;
+        }
+        for (int e = edgeStart[callSiteStart[s]]; e < edgeStart[callSiteStart[s + 1]]; ++e) {
+            if (callees[e] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return edgesInTo(method)
+                .map(edge -> new MethodEdge<>(getContainerOf(edge.getCallSite()),
+                        method, edge.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(this::edgesOutOf)
+                .map(edge -> new MethodEdge<>(method, edge.getCallee(), edge.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        int m = methodIds.get(node);
+        return m < 0 ? Set.of() :
+                IntStream.range(inEdgeStart[m], inEdgeStart[m + 1])
+                        .map(i -> containers[edgeSources[inEdges[i]]])
+                        .distinct()
+                        .mapToObj(caller -> methods[caller])
+                        .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return getCalleesOfM(node);
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return new RangeSet<>(0, methods.length, m -> methods[m]) {
+            @Override
+            public boolean contains(Object o) {
+                return methodIds.get(o) >= 0;
+            }
+        };
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return methods.length;
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable view of the elements at positions
+     * {@code [from, to)} of an array.
+     */
+    private static class RangeSet<T> extends AbstractSet<T> {
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<T> elementAt;
+
+        private RangeSet(int from, int to, IntFunction<T> elementAt) {
+            this.from = from;
+            this.to = to;
+            this.elementAt = elementAt;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elementAt.apply(next++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Open-addressing hash map from the elements of an array to
+     * their positions in the array, without boxing the positions.
+     */
+    private static class IdMap<T> {
+
+        private final Object[] keys;
+
+        private final int[] ids;
+
+        private final int mask;
+
+        private IdMap(T[] elements) {
+            // keep load factor at most 0.5
+            int capacity = Integer.highestOneBit(Math.max(2, elements.length * 2) - 1) << 1;
+            keys = new Object[capacity];
+            ids = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < elements.length; ++i) {
+                int h = slotOf(elements[i]);
+                while (keys[h] != null) {
+                    h = (h + 1) & mask;
+                }
+                keys[h] = elements[i];
+                ids[h] = i;
+            }
+        }
+
+        private int slotOf(Object key) {
+            int h = key.hashCode();
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            return h & mask;
+        }
+
+        /**
+         * @return position of given key, or -1 if the key is absent.
+         */
+        int get(Object key) {
+            if (key == null) {
+                return -1;
+            }
+            for (int h = slotOf(key); keys[h] != null; h = (h + 1) & mask) {
+                if (keys[h].equals(key)) {
+                    return ids[h];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -24,6 +24,7 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.ConfigException;
@@ -32,6 +33,8 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JMethod;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -56,18 +59,51 @@ public class CallGraphBuilder extends ProgramAnalysis {
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder;
+        boolean parallel = getOptions().getBooleanOrDefault("parallel", false);
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            builder = parallel ? new CHABuilder(getThreads()) : new CHABuilder();
+        } else if (algorithm.equals("rta")) {
+            if (parallel) {
+                throw new ConfigException("Parallel call graph construction" +
+                        " is not supported by algorithm: " + algorithm);
+            }
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
-        ClassHierarchyImpl.setCheckCHA(true);
-        CallGraph<Invoke, JMethod> callGraph = builder.build();
-        ClassHierarchyImpl.setCheckCHA(false);
+        // if option "cache" gives a file, the call graph is loaded from
+        // the file if it exists, otherwise it is built and saved to the file
+        String cache = getOptions().getString("cache");
+        Path cacheFile = cache != null ? Path.of(cache) : null;
+        CallGraph<Invoke, JMethod> callGraph;
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            callGraph = CallGraphFile.load(cacheFile, algorithm,
+                    World.get().getMainMethod());
+        } else {
+            ClassHierarchyImpl.setCheckCHA(true);
+            callGraph = builder.build();
+            ClassHierarchyImpl.setCheckCHA(false);
+            if (getOptions().getBooleanOrDefault("compact", false)) {
+                callGraph = CSRCallGraph.freeze(callGraph);
+            }
+            if (cacheFile != null) {
+                CallGraphFile.save(callGraph, algorithm, cacheFile);
+            }
+        }
         takeAction(callGraph);
         return callGraph;
     }
 
+    /**
+     * @return number of threads for parallel call graph construction
+     * given by option "threads", or 0 (i.e., the number of available
+     * processors) if the option is absent.
+     */
+    private int getThreads() {
+        return getOptions().get("threads") != null ?
+                getOptions().getInt("threads") : 0;
+    }
+
     private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
         String action = getOptions().getString("action");
         if (action == null) {
@@ -0,0 +1,448 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Binary persistence of call graphs, so that a call graph built for
+ * a program can be loaded by later runs instead of being rebuilt.
+ * <p>
+ * The file consists of
+ * <ul>
+ *     <li>a header: magic number, version, the algorithm which built
+ *     the call graph, the fingerprint of the program (see
+ *     {@link #fingerprint()}), and signatures of the entry methods;</li>
+ *     <li>the method table: signatures of the reachable methods, whose
+ *     positions in the table are their ids, and ids of entry methods;</li>
+ *     <li>the call-site table: for each call site, its index in the IR of
+ *     its container and the method it refers to (for validation), where
+ *     the call sites are grouped by their containers, and
+ *     {@code callSiteStart[m]} is the first call site in method {@code m};</li>
+ *     <li>the edge arrays: {@code edgeStart[c]} is the first edge of call
+ *     site {@code c}, and the callee id and {@link CallKind} of each edge.</li>
+ * </ul>
+ * Strings are prefixed with the lengths of their UTF-8 encodings, and
+ * arrays are prefixed with their lengths. The file is memory-mapped when
+ * loaded, and the arrays are copied out of it in bulk, which results in
+ * a {@link CSRCallGraph} with the same layout.
+ * <p>
+ * Loading checks the algorithm, the program fingerprint and the entry
+ * methods, resolves the signatures against the current class hierarchy
+ * and IR, and throws {@link AnalysisException} if anything does not
+ * match, e.g., the program, the main class or the algorithm has changed
+ * since the file was written, as a stale call graph silently makes all
+ * subsequent analyses unsound.
+ * <p>
+ * The call sites are resolved when the file is loaded rather than when
+ * they are queried, which builds the IR of every reachable method: this
+ * is where a changed method is detected, and the clients of call graphs
+ * (e.g., ICFG construction) build these IRs anyway.
+ */
+final class CallGraphFile {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphFile.class);
+
+    private static final int MAGIC = 0x54414347; // "TACG"
+
+    private static final int VERSION = 2;
+
+    private static final CallKind[] CALL_KINDS = CallKind.values();
+
+    private CallGraphFile() {
+    }
+
+    /**
+     * Writes given call graph built by given algorithm to given file.
+     */
+    static void save(CallGraph<Invoke, JMethod> callGraph, String algorithm, Path file) {
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        Map<JMethod, Integer> methodIds = Maps.newMap(methods.size());
+        for (JMethod method : methods) {
+            methodIds.put(method, methodIds.size());
+        }
+        List<Invoke> callSites = new ArrayList<>();
+        int[] callSiteStart = new int[methods.size() + 1];
+        for (int m = 0; m < methods.size(); ++m) {
+            callSiteStart[m] = callSites.size();
+            callGraph.callSitesIn(methods.get(m)).forEach(callSites::add);
+        }
+        callSiteStart[methods.size()] = callSites.size();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, algorithm);
+            writeBytes(out, fingerprint());
+            List<JMethod> entries = callGraph.entryMethods().toList();
+            out.writeInt(entries.size());
+            for (JMethod entry : entries) {
+                writeString(out, entry.getSignature());
+            }
+            // method table
+            out.writeInt(methods.size());
+            for (JMethod method : methods) {
+                writeString(out, method.getSignature());
+            }
+            out.writeInt(entries.size());
+            for (JMethod entry : entries) {
+                out.writeInt(methodIds.get(entry));
+            }
+            // call-site table
+            out.writeInt(callSites.size());
+            for (Invoke callSite : callSites) {
+                out.writeInt(callSite.getIndex());
+                writeString(out, toString(callSite.getMethodRef()));
+            }
+            writeInts(out, callSiteStart);
+            // edge arrays
+            List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+            int[] edgeStart = new int[callSites.size() + 1];
+            for (int c = 0; c < callSites.size(); ++c) {
+                edgeStart[c] = edges.size();
+                callGraph.edgesOutOf(callSites.get(c)).forEach(edges::add);
+            }
+            edgeStart[callSites.size()] = edges.size();
+            writeInts(out, edgeStart);
+            out.writeInt(edges.size());
+            for (Edge<Invoke, JMethod> edge : edges) {
+                Integer callee = methodIds.get(edge.getCallee());
+                if (callee == null) {
+                    throw new AnalysisException(edge.getCallee() + " is not reachable");
+                }
+                out.writeInt(callee);
+            }
+            out.writeInt(edges.size());
+            for (Edge<Invoke, JMethod> edge : edges) {
+                out.writeByte(edge.getKind().ordinal());
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write call graph file " + temp, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write call graph file " + file, e);
+        }
+        logger.info("Saved call graph ({} methods, {} edges) to {}",
+                methods.size(), callGraph.getNumberOfEdges(), file);
+    }
+
+    /**
+     * Loads the call graph built by given algorithm from given entry method
+     * from given file.
+     *
+     * @throws AnalysisException if the file is not a call graph file of
+     *                           this version, or the call graph does not
+     *                           match given algorithm, given entry method
+     *                           or current program.
+     */
+    static CSRCallGraph load(Path file, String algorithm, JMethod entry) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open call graph file " + file, e);
+        }
+        try {
+            CSRCallGraph callGraph = load(buffer, file, algorithm, entry);
+            logger.info("Loaded call graph ({} methods, {} edges) from {}",
+                    callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges(), file);
+            return callGraph;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException |
+                 NegativeArraySizeException | IllegalArgumentException e) {
+            throw new AnalysisException("Corrupted call graph file " + file, e);
+        }
+    }
+
+    private static CSRCallGraph load(ByteBuffer buffer, Path file,
+                                     String algorithm, JMethod entry) {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new AnalysisException(file + " is not a call graph file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new AnalysisException(file + " is a call graph file of version "
+                    + version + ", expected " + VERSION);
+        }
+        String fileAlgorithm = readString(buffer);
+        if (!fileAlgorithm.equals(algorithm)) {
+            throw new AnalysisException(file + " is a call graph built by "
+                    + fileAlgorithm + ", expected " + algorithm);
+        }
+        if (!Arrays.equals(readBytes(buffer), fingerprint())) {
+            throw new AnalysisException(file + " is a call graph of another program," +
+                    " i.e., the classes or the class path changed since it was written");
+        }
+        List<String> fileEntries = new ArrayList<>();
+        for (int i = buffer.getInt(); i > 0; --i) {
+            fileEntries.add(readString(buffer));
+        }
+        if (!fileEntries.equals(List.of(entry.getSignature()))) {
+            throw new AnalysisException(file + " is a call graph from entry methods "
+                    + fileEntries + ", expected " + entry);
+        }
+        // method table
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JMethod[] methods = new JMethod[buffer.getInt()];
+        for (int m = 0; m < methods.length; ++m) {
+            methods[m] = resolveMethod(hierarchy, readString(buffer), file);
+        }
+        int[] entries = readInts(buffer);
+        for (int id : entries) {
+            checkId(id, methods.length, "method", file);
+        }
+        // call-site table
+        int[] indexes = new int[buffer.getInt()];
+        String[] refs = new String[indexes.length];
+        for (int c = 0; c < indexes.length; ++c) {
+            indexes[c] = buffer.getInt();
+            refs[c] = readString(buffer);
+        }
+        int[] callSiteStart = readInts(buffer);
+        checkOffsets(callSiteStart, methods.length, indexes.length, file);
+        Invoke[] callSites = new Invoke[indexes.length];
+        for (int m = 0; m < methods.length; ++m) {
+            for (int c = callSiteStart[m]; c < callSiteStart[m + 1]; ++c) {
+                callSites[c] = resolveCallSite(methods[m], indexes[c], refs[c], file);
+            }
+        }
+        // edge arrays
+        int[] edgeStart = readInts(buffer);
+        int[] callees = readInts(buffer);
+        checkOffsets(edgeStart, callSites.length, callees.length, file);
+        for (int callee : callees) {
+            checkId(callee, methods.length, "method", file);
+        }
+        byte[] kinds = new byte[buffer.getInt()];
+        buffer.get(kinds);
+        if (kinds.length != callees.length) {
+            throw new AnalysisException("Corrupted call graph file " + file +
+                    ": " + kinds.length + " call kinds for " + callees.length + " edges");
+        }
+        for (byte kind : kinds) {
+            checkId(kind, CALL_KINDS.length, "call kind", file);
+        }
+        return new CSRCallGraph(methods, entries,
+                callSiteStart, callSites, edgeStart, callees, kinds);
+    }
+
+    private static JMethod resolveMethod(ClassHierarchy hierarchy,
+                                         String signature, Path file) {
+        JClass jclass = hierarchy.getClass(StringReps.getClassNameOf(signature));
+        JMethod method = jclass == null ? null : jclass.getDeclaredMethod(
+                Subsignature.get(StringReps.getSubsignatureOf(signature)));
+        if (method == null) {
+            throw new AnalysisException("Method " + signature + " in call graph file "
+                    + file + " is not found in current class hierarchy");
+        }
+        return method;
+    }
+
+    private static Invoke resolveCallSite(JMethod container, int index,
+                                          String ref, Path file) {
+        IR ir = container.getIR();
+        Stmt stmt = index < ir.getStmts().size() ? ir.getStmt(index) : null;
+        if (stmt instanceof Invoke invoke &&
+                toString(invoke.getMethodRef()).equals(ref)) {
+            return invoke;
+        }
+        throw new AnalysisException("Call site of " + ref + " at " + container
+                + "[" + index + "] in call graph file " + file
+                + " does not match current IR: " + stmt);
+    }
+
+    /**
+     * @return string representation of given method reference that
+     * identifies a call site in its container together with its index.
+     */
+    private static String toString(MethodRef methodRef) {
+        return methodRef.getDeclaringClass().getName() + ": " +
+                methodRef.getSubsignature();
+    }
+
+    /**
+     * @return a hash of the program, which covers the Java version,
+     * the contents of the class path, and the class hierarchy (the super
+     * types and the declared methods of every class, including the library
+     * classes), so that it changes when, e.g., a class is added or changed,
+     * or a method is overridden in a new subclass.
+     */
+    private static byte[] fingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+        Options options = World.get().getOptions();
+        update(digest, Integer.toString(options.getJavaVersion()));
+        if (options.getClassPath() != null) {
+            for (String entry : options.getClassPath().split(File.pathSeparator)) {
+                updateWithFiles(digest, Path.of(entry));
+            }
+        }
+        World.get().getClassHierarchy()
+                .allClasses()
+                .sorted(Comparator.comparing(JClass::getName))
+                .forEach(jclass -> {
+                    update(digest, jclass.getName());
+                    if (jclass.getSuperClass() != null) {
+                        update(digest, jclass.getSuperClass().getName());
+                    }
+                    jclass.getInterfaces()
+                            .stream()
+                            .map(JClass::getName)
+                            .sorted()
+                            .forEach(name -> update(digest, name));
+                    jclass.getDeclaredMethods()
+                            .stream()
+                            .map(m -> (m.isAbstract() ? "abstract " : "") + m.getSignature())
+                            .sorted()
+                            .forEach(sig -> update(digest, sig));
+                });
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Updates given digest with the paths and contents of the files in
+     * given class path entry (a directory or a file, e.g., a jar).
+     */
+    private static void updateWithFiles(MessageDigest digest, Path entry) {
+        update(digest, entry.toString());
+        if (!Files.exists(entry)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(entry)) {
+            for (Path path : paths.filter(Files::isRegularFile).sorted().toList()) {
+                update(digest, entry.relativize(path).toString());
+                digest.update(Files.readAllBytes(path));
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read class path entry " + entry, e);
+        }
+    }
+
+    private static void checkId(int id, int bound, String kind, Path file) {
+        if (id < 0 || id >= bound) {
+            throw new AnalysisException("Corrupted call graph file " + file +
+                    ": " + kind + " id " + id + " is out of [0, " + bound + ")");
+        }
+    }
+
+    /**
+     * Checks that given CSR offsets of given number of rows are
+     * non-decreasing from 0 to given number of columns.
+     */
+    private static void checkOffsets(int[] offsets, int rows, int columns, Path file) {
+        boolean valid = offsets.length == rows + 1 && offsets[0] == 0
+                && offsets[rows] == columns;
+        for (int i = 0; valid && i < rows; ++i) {
+            valid = offsets[i] <= offsets[i + 1];
+        }
+        if (!valid) {
+            throw new AnalysisException("Corrupted call graph file " + file
+                    + ": invalid offsets");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        out.writeInt(ints.length);
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buffer) {
+        int[] ints = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + ints.length * Integer.BYTES);
+        return ints;
+    }
+}
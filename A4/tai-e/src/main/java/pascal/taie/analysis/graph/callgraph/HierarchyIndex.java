@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of a class hierarchy for call graph construction, which memoizes
+ * <ul>
+ *     <li>the transitive subtypes and supertypes of each class,</li>
+ *     <li>the dispatch table, i.e., the method dispatched on a class
+ *     for each subsignature, and</li>
+ *     <li>the targets of virtual calls resolved by CHA for each pair of
+ *     declared class and subsignature,</li>
+ * </ul>
+ * so that the hierarchy is walked for each class (pair) only once,
+ * however many call sites refer to it.
+ * <p>
+ * This class is thread-safe. The memoized values are computed outside
+ * of the maps (as they are computed recursively) and published by
+ * {@link Map#putIfAbsent}, so concurrent callers may compute a value
+ * more than once, but they always compute equal values and share the
+ * one that is published first.
+ */
+class HierarchyIndex {
+
+    /**
+     * Marks the absence of dispatched method in the dispatch table.
+     */
+    private static final Object NO_METHOD = new Object();
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Set<JClass>> subtypes = new ConcurrentHashMap<>();
+
+    private final Map<JClass, Set<JClass>> supertypes = new ConcurrentHashMap<>();
+
+    private final Map<JClass, Map<Subsignature, Object>> dispatchTable = new ConcurrentHashMap<>();
+
+    private final Map<JClass, Map<Subsignature, Set<JMethod>>> virtualTargets = new ConcurrentHashMap<>();
+
+    HierarchyIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * @return the given class and all its direct and indirect subclasses,
+     * subinterfaces and implementors.
+     */
+    Set<JClass> getSubtypesOf(JClass jclass) {
+        Set<JClass> result = subtypes.get(jclass);
+        if (result == null) {
+            result = new LinkedHashSet<>();
+            result.add(jclass);
+            if (jclass.isInterface()) {
+                for (JClass subinterface : hierarchy.getDirectSubinterfacesOf(jclass)) {
+                    result.addAll(getSubtypesOf(subinterface));
+                }
+                for (JClass implementor : hierarchy.getDirectImplementorsOf(jclass)) {
+                    result.addAll(getSubtypesOf(implementor));
+                }
+            } else {
+                for (JClass subclass : hierarchy.getDirectSubclassesOf(jclass)) {
+                    result.addAll(getSubtypesOf(subclass));
+                }
+            }
+            result = publish(subtypes, jclass, Collections.unmodifiableSet(result));
+        }
+        return result;
+    }
+
+    /**
+     * @return the given class and all its direct and indirect superclasses
+     * and superinterfaces.
+     */
+    Set<JClass> getSupertypesOf(JClass jclass) {
+        Set<JClass> result = supertypes.get(jclass);
+        if (result == null) {
+            result = new LinkedHashSet<>();
+            result.add(jclass);
+            if (jclass.getSuperClass() != null) {
+                result.addAll(getSupertypesOf(jclass.getSuperClass()));
+            }
+            for (JClass superinterface : jclass.getInterfaces()) {
+                result.addAll(getSupertypesOf(superinterface));
+            }
+            result = publish(supertypes, jclass, Collections.unmodifiableSet(result));
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature,
+     * i.e., the first non-abstract method with the subsignature declared in
+     * the class or its superclasses.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, Object> table = dispatchTable.computeIfAbsent(
+                jclass, __ -> new ConcurrentHashMap<>());
+        Object target = table.get(subsignature);
+        if (target == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = jclass.getSuperClass() != null ?
+                        dispatch(jclass.getSuperClass(), subsignature) : null;
+            }
+            target = publish(table, subsignature, method != null ? method : NO_METHOD);
+        }
+        return target != NO_METHOD ? (JMethod) target : null;
+    }
+
+    /**
+     * @return the methods dispatched on the subtypes of given class for
+     * given subsignature, i.e., the targets of a virtual (interface) call
+     * to the method resolved by CHA.
+     */
+    Set<JMethod> resolveVirtual(JClass declaredClass, Subsignature subsignature) {
+        Map<Subsignature, Set<JMethod>> targets = virtualTargets.computeIfAbsent(
+                declaredClass, __ -> new ConcurrentHashMap<>());
+        Set<JMethod> result = targets.get(subsignature);
+        if (result == null) {
+            result = new LinkedHashSet<>();
+            for (JClass subtype : getSubtypesOf(declaredClass)) {
+                JMethod method = dispatch(subtype, subsignature);
+                if (method != null) {
+                    result.add(method);
+                }
+            }
+            result = publish(targets, subsignature, Collections.unmodifiableSet(result));
+        }
+        return result;
+    }
+
+    /**
+     * Associates given value with given key in given map, unless the key
+     * has been associated with a value by another thread meanwhile.
+     *
+     * @return the value associated with the key.
+     */
+    private static <K, V> V publish(Map<K, V> map, K key, V value) {
+        V existing = map.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+}
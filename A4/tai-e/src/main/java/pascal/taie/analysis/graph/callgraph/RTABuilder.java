@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (rapid type analysis) algorithm.
+ * <p>
+ * Different from CHA, a virtual (interface) call is only dispatched on
+ * the classes instantiated by the {@link New} statements in reachable
+ * methods. The call graph is built incrementally: when a method becomes
+ * reachable, its call sites are resolved on the classes instantiated so
+ * far, and when a class is instantiated for the first time, the virtual
+ * call sites seen so far whose declaring classes are supertypes of
+ * the class are dispatched on it.
+ * <p>
+ * Creation of an array is regarded as instantiation of java.lang.Object,
+ * on which the methods invoked on arrays are dispatched. Reference
+ * literals (e.g., string and class literals) are objects created by the
+ * JVM, so an assignment of such a literal is regarded as instantiation
+ * of the class of the literal (e.g., java.lang.String and java.lang.Class).
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private HierarchyIndex index;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Virtual (interface) call sites in reachable methods, grouped by
+     * the declaring classes of their method references.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        index = new HierarchyIndex(hierarchy);
+        callGraph = new DefaultCallGraph();
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                if (!method.isAbstract()) {
+                    for (Stmt stmt : method.getIR()) {
+                        if (stmt instanceof New newStmt) {
+                            instantiate(newStmt.getRValue());
+                        } else if (stmt instanceof AssignLiteral assign &&
+                                assign.getRValue() instanceof ReferenceLiteral literal &&
+                                literal.getType() instanceof ClassType classType) {
+                            instantiate(classType.getJClass());
+                        }
+                    }
+                }
+                callGraph.callSitesIn(method).forEach(this::processCallSite);
+            }
+        }
+        return callGraph;
+    }
+
+    private void instantiate(NewExp newExp) {
+        instantiate(newExp instanceof NewInstance newInstance ?
+                newInstance.getType().getJClass() :
+                hierarchy.getJREClass("java.lang.Object"));
+    }
+
+    private void instantiate(JClass jclass) {
+        if (jclass != null && instantiatedClasses.add(jclass)) {
+            for (JClass supertype : index.getSupertypesOf(jclass)) {
+                for (Invoke callSite : virtualCallSites.get(supertype)) {
+                    addCallEdge(callSite, index.dispatch(jclass,
+                            callSite.getMethodRef().getSubsignature()));
+                }
+            }
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        JClass declaredClass = callSite.getMethodRef().getDeclaringClass();
+        Subsignature subsignature = callSite.getMethodRef().getSubsignature();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addCallEdge(callSite,
+                    declaredClass.getDeclaredMethod(subsignature));
+            case SPECIAL -> addCallEdge(callSite,
+                    index.dispatch(declaredClass, subsignature));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(declaredClass, callSite);
+                // iterate the smaller one of the subtypes of declared class
+                // and the instantiated classes
+                Set<JClass> subtypes = index.getSubtypesOf(declaredClass);
+                if (subtypes.size() <= instantiatedClasses.size()) {
+                    for (JClass subtype : subtypes) {
+                        if (instantiatedClasses.contains(subtype)) {
+                            addCallEdge(callSite, index.dispatch(subtype, subsignature));
+                        }
+                    }
+                } else {
+                    for (JClass jclass : instantiatedClasses) {
+                        if (index.getSupertypesOf(jclass).contains(declaredClass)) {
+                            addCallEdge(callSite, index.dispatch(jclass, subsignature));
+                        }
+                    }
+                }
+            }
+            default -> {
+                // other calls (e.g., invokedynamic) are not handled
+            }
+        }
+    }
+
+    /**
+     * Adds a call edge from given call site to given callee (if not null),
+     * and enqueues the callee if it is not reachable yet.
+     */
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (callee != null &&
+                callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee)) &&
+                !callGraph.contains(callee)) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that the queries on frozen call graphs give the same answers
+ * as those on the call graphs they are frozen from.
+ */
+public class CSRCallGraphTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static final List<String> PROGRAMS = List.of(
+            "StaticCall",
+            "VirtualCall",
+            "Interface",
+            "AbstractMethod");
+
+    @Test
+    public void testFreeze() {
+        PROGRAMS.forEach(CSRCallGraphTest::test);
+    }
+
+    private static void test(String main) {
+        World.reset();
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", main);
+        CallGraph<Invoke, JMethod> expected = new CHABuilder().build();
+        CallGraph<Invoke, JMethod> actual = CSRCallGraph.freeze(expected);
+        Assert.assertEquals(main, expected.getNumberOfMethods(), actual.getNumberOfMethods());
+        Assert.assertEquals(main, expected.getNumberOfEdges(), actual.getNumberOfEdges());
+        Assert.assertEquals(main, toSet(expected.entryMethods()), toSet(actual.entryMethods()));
+        Set<JMethod> methods = toSet(expected.reachableMethods());
+        Assert.assertEquals(main, methods, toSet(actual.reachableMethods()));
+        Assert.assertEquals(main, toSet(expected.edges()), toSet(actual.edges()));
+        for (JMethod method : methods) {
+            String message = method + " in " + main;
+            Assert.assertTrue(message, actual.contains(method));
+            Assert.assertEquals(message, new HashSet<>(expected.getCallersOf(method)),
+                    new HashSet<>(actual.getCallersOf(method)));
+            Assert.assertEquals(message, new HashSet<>(expected.getCalleesOfM(method)),
+                    new HashSet<>(actual.getCalleesOfM(method)));
+            Assert.assertEquals(message, new HashSet<>(expected.getCallSitesIn(method)),
+                    new HashSet<>(actual.getCallSitesIn(method)));
+            Assert.assertEquals(message, toSet(expected.edgesInTo(method)),
+                    toSet(actual.edgesInTo(method)));
+            Assert.assertEquals(message, new HashSet<>(expected.getPredsOf(method)),
+                    new HashSet<>(actual.getPredsOf(method)));
+            Assert.assertEquals(message, new HashSet<>(expected.getSuccsOf(method)),
+                    new HashSet<>(actual.getSuccsOf(method)));
+            for (JMethod target : methods) {
+                Assert.assertEquals(message + " -> " + target,
+                        expected.hasEdge(method, target),
+                        actual.hasEdge(method, target));
+            }
+            for (Invoke callSite : expected.getCallSitesIn(method)) {
+                String siteMessage = callSite + " in " + main;
+                Assert.assertEquals(siteMessage, new HashSet<>(expected.getCalleesOf(callSite)),
+                        new HashSet<>(actual.getCalleesOf(callSite)));
+                Assert.assertEquals(siteMessage, expected.getContainerOf(callSite),
+                        actual.getContainerOf(callSite));
+                Assert.assertEquals(siteMessage, toSet(expected.edgesOutOf(callSite)),
+                        toSet(actual.edgesOutOf(callSite)));
+            }
+        }
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+}
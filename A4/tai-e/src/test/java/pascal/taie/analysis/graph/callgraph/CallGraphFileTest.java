@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that call graphs saved by {@link CallGraphFile} are loaded
+ * as the same call graphs, and that stale files are rejected.
+ */
+public class CallGraphFileTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (String main : new String[]{ "StaticCall", "VirtualCall",
+                "Interface", "AbstractMethod" }) {
+            buildWorld(CLASS_PATH, main);
+            CallGraph<Invoke, JMethod> callGraph = new CHABuilder().build();
+            Path file = Files.createTempFile("call-graph", ".cg");
+            CallGraphFile.save(callGraph, "cha", file);
+            CallGraph<Invoke, JMethod> loaded = CallGraphFile.load(
+                    file, "cha", World.get().getMainMethod());
+            Assert.assertEquals("Entry methods of " + main,
+                    callGraph.entryMethods().toList(),
+                    loaded.entryMethods().toList());
+            Assert.assertEquals("Reachable methods of " + main,
+                    callGraph.reachableMethods().collect(Collectors.toSet()),
+                    loaded.reachableMethods().collect(Collectors.toSet()));
+            Assert.assertEquals("Call edges of " + main,
+                    callGraph.edges().collect(Collectors.toSet()),
+                    loaded.edges().collect(Collectors.toSet()));
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testAlgorithmMismatch() throws IOException {
+        buildWorld(CLASS_PATH, "VirtualCall");
+        Path file = save();
+        CallGraphFile.load(file, "rta", World.get().getMainMethod());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testEntryMismatch() throws IOException {
+        buildWorld(CLASS_PATH, "VirtualCall");
+        Path file = save();
+        JMethod foo = World.get().getClassHierarchy()
+                .getClass("A").getDeclaredMethod("foo");
+        CallGraphFile.load(file, "cha", foo);
+    }
+
+    /**
+     * Changes the program after the call graph has been saved,
+     * which changes its fingerprint.
+     */
+    @Test(expected = AnalysisException.class)
+    public void testFingerprintMismatch() throws IOException {
+        Path classPath = Files.createTempDirectory("call-graph");
+        Path program = classPath.resolve("VirtualCall.java");
+        Files.copy(Path.of(CLASS_PATH, "VirtualCall.java"), program);
+        buildWorld(classPath.toString(), "VirtualCall");
+        Path file = save();
+        Files.writeString(program, "\nclass F extends B {\n    void foo() {\n    }\n}\n",
+                StandardOpenOption.APPEND);
+        buildWorld(classPath.toString(), "VirtualCall");
+        CallGraphFile.load(file, "cha", World.get().getMainMethod());
+    }
+
+    private static void buildWorld(String classPath, String main) {
+        World.reset();
+        Main.buildWorld("-pp", "-cp", classPath, "-m", main);
+    }
+
+    /**
+     * Saves the CHA call graph of current program to a temporary file.
+     */
+    private static Path save() throws IOException {
+        Path file = Files.createTempFile("call-graph", ".cg");
+        file.toFile().deleteOnExit();
+        CallGraphFile.save(new CHABuilder().build(), "cha", file);
+        return file;
+    }
+}
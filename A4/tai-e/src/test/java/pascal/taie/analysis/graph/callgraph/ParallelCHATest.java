@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that building call graphs by CHA in parallel gives the same
+ * call graphs as building them sequentially.
+ */
+public class ParallelCHATest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static final List<String> PROGRAMS = List.of(
+            "StaticCall",
+            "VirtualCall",
+            "Interface",
+            "AbstractMethod");
+
+    @Test
+    public void testParallelCHA() {
+        PROGRAMS.forEach(ParallelCHATest::test);
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testParallelRTA() {
+        new CallGraphBuilder(new AnalysisConfig(CallGraphBuilder.ID,
+                "algorithm", "rta", "parallel", true)).analyze();
+    }
+
+    private static void test(String main) {
+        World.reset();
+        Main.buildWorld("-pp", "-cp", CLASS_PATH, "-m", main);
+        CallGraph<Invoke, JMethod> expected = new CallGraphBuilder(
+                new AnalysisConfig(CallGraphBuilder.ID,
+                        "algorithm", "cha", "parallel", false)).analyze();
+        for (int threads : new int[]{ 1, 4 }) {
+            CallGraph<Invoke, JMethod> actual = new CallGraphBuilder(
+                    new AnalysisConfig(CallGraphBuilder.ID, "algorithm", "cha",
+                            "parallel", true, "threads", threads)).analyze();
+            Assert.assertEquals("Reachable methods of " + main,
+                    expected.reachableMethods().collect(Collectors.toSet()),
+                    actual.reachableMethods().collect(Collectors.toSet()));
+            Assert.assertEquals("Call edges of " + main,
+                    edgesOf(expected), edgesOf(actual));
+        }
+    }
+
+    private static Set<Edge<Invoke, JMethod>> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges().collect(Collectors.toSet());
+    }
+}
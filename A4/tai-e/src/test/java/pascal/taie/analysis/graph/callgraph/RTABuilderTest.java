@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that RTA only dispatches virtual calls on instantiated classes.
+ */
+public class RTABuilderTest {
+
+    private static final String CLASS_PATH = "src/test/resources/rta/";
+
+    /**
+     * A subclass which overrides the callee but is never instantiated is
+     * a target of the call by CHA, but not by RTA.
+     */
+    @Test
+    public void testUninstantiatedSubclass() {
+        buildWorld(CLASS_PATH, "Uninstantiated");
+        CallGraph<Invoke, JMethod> cha = new CHABuilder().build();
+        CallGraph<Invoke, JMethod> rta = new RTABuilder().build();
+        JMethod aFoo = getMethod("A", "foo");
+        JMethod bFoo = getMethod("B", "foo");
+        Assert.assertEquals(Set.of(aFoo, bFoo), calleesOf(cha, "foo"));
+        Assert.assertEquals(Set.of(aFoo), calleesOf(rta, "foo"));
+        Assert.assertTrue(cha.contains(bFoo));
+        Assert.assertFalse(rta.contains(bFoo));
+    }
+
+    /**
+     * The only instantiated implementation of the interface is created in
+     * a method which becomes reachable after the interface call site has
+     * been processed, thus the call site must be dispatched on the class
+     * when it is instantiated.
+     */
+    @Test
+    public void testLateInstantiation() {
+        buildWorld(CLASS_PATH, "LateInstantiation");
+        CallGraph<Invoke, JMethod> rta = new RTABuilder().build();
+        JMethod circleDraw = getMethod("Circle", "draw");
+        Assert.assertEquals(Set.of(circleDraw), calleesOf(rta, "draw"));
+        Assert.assertTrue(rta.contains(circleDraw));
+        Assert.assertFalse(rta.contains(getMethod("Square", "draw")));
+    }
+
+    /**
+     * RTA call graphs are subgraphs of CHA call graphs.
+     */
+    @Test
+    public void testSubgraphOfCHA() {
+        for (String main : List.of("StaticCall", "VirtualCall",
+                "Interface", "AbstractMethod")) {
+            buildWorld("src/test/resources/cha/", main);
+            CallGraph<Invoke, JMethod> cha = new CHABuilder().build();
+            CallGraph<Invoke, JMethod> rta = new RTABuilder().build();
+            Assert.assertTrue("Reachable methods of " + main,
+                    rta.reachableMethods().allMatch(cha::contains));
+            Set<Edge<Invoke, JMethod>> chaEdges = cha.edges()
+                    .collect(Collectors.toSet());
+            Assert.assertTrue("Call edges of " + main,
+                    rta.edges().allMatch(chaEdges::contains));
+        }
+    }
+
+    private static void buildWorld(String classPath, String main) {
+        World.reset();
+        Main.buildWorld("-pp", "-cp", classPath, "-m", main);
+    }
+
+    private static JMethod getMethod(String className, String methodName) {
+        return World.get().getClassHierarchy()
+                .getClass(className)
+                .getDeclaredMethod(methodName);
+    }
+
+    /**
+     * @return the callees of the call sites in the main method
+     * which invoke the method of given name.
+     */
+    private static Set<JMethod> calleesOf(CallGraph<Invoke, JMethod> callGraph,
+                                          String methodName) {
+        return callGraph.callSitesIn(World.get().getMainMethod())
+                .filter(callSite -> callSite.getMethodRef().getName().equals(methodName))
+                .map(callGraph::getCalleesOf)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+    }
+}
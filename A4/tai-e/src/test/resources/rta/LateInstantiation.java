@@ -0,0 +1,27 @@
+public class LateInstantiation {
+
+    public static void main(String[] args) {
+        Shape shape = Factory.create();
+        shape.draw();
+    }
+}
+
+interface Shape {
+    void draw();
+}
+
+class Circle implements Shape {
+    public void draw() {
+    }
+}
+
+class Square implements Shape {
+    public void draw() {
+    }
+}
+
+class Factory {
+    static Shape create() {
+        return new Circle();
+    }
+}
@@ -0,0 +1,17 @@
+public class Uninstantiated {
+
+    public static void main(String[] args) {
+        A a = new A();
+        a.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}